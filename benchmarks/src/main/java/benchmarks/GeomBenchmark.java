@@ -0,0 +1,43 @@
+package benchmarks;
+
+import helpers.CenteredRectangle;
+import helpers.GeomHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeomBenchmark {
+    private CenteredRectangle rectangle;
+    private CenteredRectangle overlappingRectangle;
+    private CenteredRectangle crossingRectangle;
+    private CenteredRectangle distantRectangle;
+
+    @Setup
+    public void setup() {
+        rectangle = new CenteredRectangle(0, 0, 2, 1, 30);
+        overlappingRectangle = new CenteredRectangle(0.5, 0.2, 1, 0.5, 0);
+        crossingRectangle = new CenteredRectangle(0, 0, 0.2, 4, 75);
+        distantRectangle = new CenteredRectangle(10, 10, 2, 1, 0);
+    }
+
+    @Benchmark
+    public boolean rectangleCollidesOverlapping() {
+        return GeomHelper.rectangleCollidesRectangle(rectangle, overlappingRectangle);
+    }
+
+    @Benchmark
+    public boolean rectangleCollidesCrossing() {
+        return GeomHelper.rectangleCollidesRectangle(rectangle, crossingRectangle);
+    }
+
+    @Benchmark
+    public boolean rectangleCollidesDistant() {
+        return GeomHelper.rectangleCollidesRectangle(rectangle, distantRectangle);
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import domain.entities.Yard;
+import helpers.SerializationHelper;
+import helpers.YardGenerator;
+import helpers.YardLayout;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Yard.copy against the serialization round trip it replaced for planning and simulation copies
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class YardCopyBenchmark {
+    @Param({"50000"})
+    public int bundleCount;
+
+    private Yard yard;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        YardLayout layout = new YardLayout();
+        layout.rows = 120;
+        layout.stacksPerRow = 200;
+        layout.angleJitter = 2.0;
+        layout.maxBundles = bundleCount;
+        yard = YardGenerator.generate(layout);
+    }
+
+    @Benchmark
+    public Yard copy() {
+        return yard.copy();
+    }
+
+    @Benchmark
+    public Yard serializationRoundTrip() throws IOException, ClassNotFoundException {
+        return SerializationHelper.deserializeYard(SerializationHelper.serializeYard(yard));
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import domain.controllers.LarmanController;
+import domain.entities.Bundle;
+import domain.entities.Yard;
+import helpers.Point2D;
+import helpers.UndoRedo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class YardEditBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int bundleCount;
+
+    @Param({"1", "5"})
+    public int stackHeight;
+
+    private Yard yard;
+    private Point2D freePosition;
+    private LarmanController session;
+    private UndoRedo history;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        yard = YardFixtures.yard(bundleCount, stackHeight);
+        freePosition = YardFixtures.freePosition();
+        // Undo snapshots are taken from the session's yard, into the session's history
+        session = new LarmanController(yard);
+        history = session.getHistory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        history.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeSession() {
+        session.close();
+    }
+
+    // The bundle is removed again so that every invocation sees the same yard
+    @Benchmark
+    public Bundle createBundle() {
+        Bundle bundle = yard.createBundle(freePosition);
+        yard.deleteBundle(bundle.getId());
+        yard.takeChanges();
+        history.clear();
+        return bundle;
+    }
+
+    @Benchmark
+    public int addCurrentYard() {
+        history.addCurrentYard();
+        int undoSize = history.getUndoSize();
+        history.clear();
+        return undoSize;
+    }
+}
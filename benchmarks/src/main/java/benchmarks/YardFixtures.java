@@ -0,0 +1,50 @@
+package benchmarks;
+
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+import helpers.Point2D;
+
+// Yards are laid out in a square grid of separate stacks, away from the lift at the origin
+public class YardFixtures {
+    public static final double ORIGIN = 10.0;
+    public static final double SPACING = 3.0;
+
+    public static Yard yard(int bundleCount, int stackHeight) {
+        Yard yard = new Yard();
+        int columns = columns(bundleCount, stackHeight);
+        for (int i = 0; i < bundleCount; i++) {
+            int stack = i / stackHeight;
+            int level = i % stackHeight;
+            Bundle bundle = new Bundle(stackPosition(stack, columns));
+            bundle.setZ(level * bundle.getHeight());
+            yard.addBundle(bundle);
+        }
+        yard.takeChanges();
+        return yard;
+    }
+
+    public static Point2D middleStackPosition(int bundleCount, int stackHeight) {
+        int stacks = (bundleCount + stackHeight - 1) / stackHeight;
+        return stackPosition(stacks / 2, columns(bundleCount, stackHeight));
+    }
+
+    public static Point2D freePosition() {
+        return new Point2D(-ORIGIN, -ORIGIN);
+    }
+
+    public static void placeArmsUnder(Lift lift, Point2D position) {
+        Point2D armsOffset = lift.getArmsPosition().substract(lift.getPosition());
+        lift.setPosition(position.substract(armsOffset));
+        lift.setArmsHeight(0);
+    }
+
+    private static int columns(int bundleCount, int stackHeight) {
+        int stacks = (bundleCount + stackHeight - 1) / stackHeight;
+        return (int) Math.ceil(Math.sqrt(stacks));
+    }
+
+    private static Point2D stackPosition(int stack, int columns) {
+        return new Point2D(ORIGIN + (stack % columns) * SPACING, ORIGIN + (stack / columns) * SPACING);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import domain.dtos.BundleDto;
+import domain.entities.Bundle;
+import domain.entities.Yard;
+import helpers.Point2D;
+import helpers.STLCreator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class YardQueryBenchmark {
+    @Param({"100", "10000", "100000"})
+    public int bundleCount;
+
+    @Param({"1", "5"})
+    public int stackHeight;
+
+    private Yard yard;
+    private BundleDto middleBundle;
+    private List<BundleDto> bundleDtos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        yard = YardFixtures.yard(bundleCount, stackHeight);
+        Point2D middle = YardFixtures.middleStackPosition(bundleCount, stackHeight);
+        middleBundle = new BundleDto(yard.getTopBundle(middle));
+        YardFixtures.placeArmsUnder(yard.getLift(), middle);
+        bundleDtos = yard.snapshot().getBundles();
+    }
+
+    @Benchmark
+    public List<Bundle> getAllCollidingBundles() {
+        return yard.getAllCollidingBundles(middleBundle);
+    }
+
+    @Benchmark
+    public List<Bundle> bundlesToMove() {
+        return yard.bundlesToMove();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String generateSTL() {
+        return STLCreator.generateSTL(bundleDtos);
+    }
+}
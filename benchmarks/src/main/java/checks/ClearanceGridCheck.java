@@ -0,0 +1,76 @@
+package checks;
+
+import domain.dtos.LiftDto;
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+import helpers.CenteredRectangle;
+import helpers.GeomHelper;
+import helpers.Point2D;
+import helpers.YardGenerator;
+import helpers.YardLayout;
+
+import java.util.List;
+import java.util.Random;
+
+// modifyLiftProperties answers through the clearance grid; it must accept a pose exactly when a scan over every
+// bundle finds no collision, while bundles keep moving between the poses
+public class ClearanceGridCheck {
+    private static final int POSES_PER_MOVE = 3;
+
+    public static void main(String... args) {
+        int yards = args.length > 0 ? Integer.parseInt(args[0]) : 25;
+        int poses = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int failures = 0;
+        int collisions = 0;
+        for (long seed = 1; seed <= yards; seed++) {
+            Random random = new Random(seed);
+            YardLayout layout = new YardLayout();
+            layout.seed = seed;
+            layout.rows = 2 + random.nextInt(8);
+            layout.stacksPerRow = 2 + random.nextInt(15);
+            layout.angleJitter = random.nextInt(20);
+            Yard yard = YardGenerator.generate(layout);
+            double maxX = layout.origin.getX() + layout.stacksPerRow * (layout.bundleWidth + layout.stackGap);
+            double maxY = layout.origin.getY() + layout.rows * (layout.bundleLength + layout.aisleWidth);
+            List<Bundle> bundles = yard.getBundles();
+            for (int i = 0; i < poses; i++) {
+                if (i % POSES_PER_MOVE == 0) {
+                    Bundle bundle = bundles.get(random.nextInt(bundles.size()));
+                    yard.modifyBundlePosition(bundle.getId(), randomPoint(random, maxX, maxY));
+                }
+                LiftDto pose = new LiftDto(yard.getLift())
+                    .withPosition(randomPoint(random, maxX, maxY))
+                    .withAngle(random.nextInt(360))
+                    .withHeight(0.25 + random.nextInt(12) * 0.25);
+                boolean expected = collidesAnyBundle(yard, pose);
+                yard.modifyLiftProperties(pose);
+                Lift lift = yard.getLift();
+                boolean refused = lift.getPosition().getX() != pose.position.getX() || lift.getPosition().getY() != pose.position.getY()
+                    || lift.getAngle() != pose.angle;
+                if (expected) collisions++;
+                if (refused != expected) {
+                    failures++;
+                    System.out.println("Cour " + seed + ", pose " + i + " : " + (refused ? "refusée" : "acceptée")
+                        + " au lieu de " + (expected ? "refusée" : "acceptée"));
+                }
+            }
+        }
+        int checked = yards * poses;
+        System.out.println(checked - failures + "/" + checked + " poses identiques au balayage complet (" + collisions + " collisions)");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static Point2D randomPoint(Random random, double maxX, double maxY) {
+        return new Point2D(Math.round(random.nextDouble() * maxX * 100) / 100.0, Math.round(random.nextDouble() * maxY * 100) / 100.0);
+    }
+
+    private static boolean collidesAnyBundle(Yard yard, LiftDto pose) {
+        CenteredRectangle liftRectangle = new CenteredRectangle(pose);
+        for (Bundle bundle : yard.getBundles()) {
+            if (!bundle.isCarried() && pose.height > bundle.getZ()
+                && GeomHelper.rectangleCollidesRectangle(new CenteredRectangle(bundle), liftRectangle)) return true;
+        }
+        return false;
+    }
+}
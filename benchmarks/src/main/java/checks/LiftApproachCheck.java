@@ -0,0 +1,85 @@
+package checks;
+
+import domain.dtos.LiftDto;
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+import helpers.CenteredRectangle;
+import helpers.GeomHelper;
+import helpers.Point2D;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// The analytic approach of moveLiftToBundle must give as many increments as stepping the lift forward until it touches
+// a bundle or the second lift and its load; the stepping here uses the exact separation, not the rounded point test
+public class LiftApproachCheck {
+    private static final int MAX_STEPS = 5000;
+
+    public static void main(String... args) {
+        int yards = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int checked = 0;
+        int failures = 0;
+        for (long seed = 1; checked < yards; seed++) {
+            Yard yard = createYard(new Random(seed));
+            if (yard == null) continue;
+            checked++;
+            int expected = countSteps(yard);
+            int steps = yard.getLiftApproachSteps();
+            if (steps != expected) {
+                failures++;
+                System.out.println("Cour " + seed + " : " + steps + " pas au lieu de " + expected);
+            }
+        }
+        System.out.println(checked - failures + "/" + checked + " approches identiques");
+        if (failures > 0) System.exit(1);
+    }
+
+    // Bundles scattered around the lift and a second lift carrying one bundle, none of them touching
+    private static Yard createYard(Random random) {
+        Yard yard = new Yard();
+        yard.getLift().setAngle(random.nextInt(72) * 5);
+        for (int i = 0; i < 15; i++) {
+            Bundle bundle = new Bundle(new Point2D(random.nextDouble() * 80 - 40, random.nextDouble() * 80 - 40));
+            bundle.setAngle(random.nextInt(360));
+            yard.addBundle(bundle);
+        }
+        Lift other = yard.addLift(new Point2D(random.nextDouble() * 60 - 30, random.nextDouble() * 60 - 30));
+        if (other == null) return null;
+        other.setAngle(random.nextInt(72) * 5);
+        Bundle load = new Bundle(other.getArmsPosition());
+        load.setAngle(other.getAngle());
+        yard.addBundle(load);
+        yard.selectLift(1);
+        yard.setLiftBundles();
+        yard.selectLift(0);
+        yard.takeChanges();
+        return yard.validate().isEmpty() && !other.getBundlesOnLift().isEmpty() ? yard : null;
+    }
+
+    // Increments made before the next one would touch an obstacle, -1 when none is met
+    private static int countSteps(Yard yard) {
+        Lift lift = yard.getLift();
+        List<CenteredRectangle> obstacles = new ArrayList<>();
+        for (Bundle bundle : yard.getBundles()) {
+            if (!bundle.isCarried() && bundle.getZ() < lift.getHeight()) obstacles.add(new CenteredRectangle(bundle));
+        }
+        for (Lift other : yard.getLifts()) {
+            if (other == lift) continue;
+            obstacles.add(new CenteredRectangle(new LiftDto(other)));
+            for (Bundle bundle : other.getBundlesOnLift()) {
+                obstacles.add(new CenteredRectangle(bundle));
+            }
+        }
+        LiftDto pose = new LiftDto(lift);
+        Point2D increment = lift.getPositionIncrement();
+        for (int step = 1; step <= MAX_STEPS; step++) {
+            CenteredRectangle liftRectangle = new CenteredRectangle(pose.withPosition(lift.getPosition().add(increment.multiply(step))));
+            for (CenteredRectangle obstacle : obstacles) {
+                if (GeomHelper.getSeparation(liftRectangle, obstacle) <= 0) return step - 1;
+            }
+        }
+        return -1;
+    }
+}
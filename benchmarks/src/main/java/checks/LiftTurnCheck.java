@@ -0,0 +1,99 @@
+package checks;
+
+import domain.dtos.LiftDto;
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+import helpers.CenteredRectangle;
+import helpers.GeomHelper;
+import helpers.Point2D;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// getMaxLiftTurn must refuse every turn in which the lift or the bundle on its arms passes through a bundle, found here by
+// turning the lift and its load in small steps and testing the exact separation at each one
+public class LiftTurnCheck {
+    private static final double TURN = 45.0;
+    private static final int SUBSTEPS = 900;
+    // The swept rotation stops this close to a bundle, turns that only come this near may be refused
+    private static final double CONTACT = 1e-3;
+
+    public static void main(String... args) {
+        int yards = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int checked = 0;
+        int loadBlocked = 0;
+        int failures = 0;
+        for (long seed = 1; checked < yards; seed++) {
+            Random random = new Random(seed);
+            Yard yard = createYard(random);
+            if (yard == null) continue;
+            checked++;
+            double angle = random.nextBoolean() ? TURN : -TURN;
+            boolean allowed = yard.getMaxLiftTurn(angle) == angle;
+            double clearance = getClearance(yard, angle, true);
+            if (allowed && clearance <= 0 || !allowed && clearance > CONTACT) {
+                failures++;
+                System.out.println("Cour " + seed + " : rotation " + (allowed ? "acceptée" : "refusée") + ", jeu " + clearance);
+            }
+            if (getClearance(yard, angle, false) > 0 && clearance <= 0) loadBlocked++;
+        }
+        System.out.println(checked - failures + "/" + checked + " rotations correctes, " + loadBlocked + " bloquées par la charge seule");
+        if (failures > 0) System.exit(1);
+    }
+
+    // A lift carrying one bundle that sticks out of its arms, among bundles on the ground and on low stacks
+    private static Yard createYard(Random random) {
+        Yard yard = new Yard();
+        Lift lift = yard.getLift();
+        lift.setAngle(random.nextInt(72) * 5);
+        Bundle load = new Bundle(lift.getArmsPosition());
+        load.setAngle(lift.getAngle() + random.nextInt(19) * 5);
+        load.setLength(2 + random.nextDouble() * 3);
+        yard.addBundle(load);
+        yard.setLiftBundles();
+        // createBundle stacks a bundle dropped on another one
+        for (int i = 0; i < 30; i++) {
+            yard.createBundle(new Point2D(random.nextDouble() * 16 - 8, random.nextDouble() * 16 - 8));
+        }
+        yard.takeChanges();
+        return yard.validate().isEmpty() && !lift.getBundlesOnLift().isEmpty() ? yard : null;
+    }
+
+    // Smallest separation met while turning, between the lift and the bundles under its height and between the load and the bundles at its height
+    private static double getClearance(Yard yard, double angle, boolean withLoad) {
+        Lift lift = yard.getLift();
+        List<Bundle> obstacles = new ArrayList<>();
+        for (Bundle bundle : yard.getBundles()) {
+            if (!bundle.isCarried()) obstacles.add(bundle);
+        }
+        double clearance = Double.POSITIVE_INFINITY;
+        for (int step = 1; step <= SUBSTEPS; step++) {
+            double turn = angle * step / SUBSTEPS;
+            CenteredRectangle liftRectangle = new CenteredRectangle(new LiftDto(lift).withAngle(lift.getAngle() + turn));
+            for (Bundle obstacle : obstacles) {
+                if (obstacle.getZ() < lift.getHeight()) {
+                    clearance = Math.min(clearance, GeomHelper.getSeparation(liftRectangle, new CenteredRectangle(obstacle)));
+                }
+                if (!withLoad) continue;
+                for (Bundle carried : lift.getBundlesOnLift()) {
+                    if (obstacle.getZ() >= carried.getTopZ() || carried.getZ() >= obstacle.getTopZ()) continue;
+                    clearance = Math.min(clearance, GeomHelper.getSeparation(turn(carried, lift.getPosition(), turn), new CenteredRectangle(obstacle)));
+                }
+            }
+        }
+        return clearance;
+    }
+
+    private static CenteredRectangle turn(Bundle bundle, Point2D pivot, double angle) {
+        double radians = Math.toRadians(angle);
+        double dx = bundle.getPosition().getX() - pivot.getX();
+        double dy = bundle.getPosition().getY() - pivot.getY();
+        Point2D position = new Point2D(
+            pivot.getX() + dx * Math.cos(radians) - dy * Math.sin(radians),
+            pivot.getY() + dx * Math.sin(radians) + dy * Math.cos(radians)
+        );
+        return new CenteredRectangle(position, bundle.getWidth(), bundle.getLength(), bundle.getAngle() + angle);
+    }
+}
@@ -0,0 +1,78 @@
+package checks;
+
+import domain.dtos.LiftDto;
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+import helpers.CenteredRectangle;
+import helpers.GeomHelper;
+import helpers.Point2D;
+import helpers.YardGenerator;
+import helpers.YardLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Every position returned by findFreePlacements must leave the footprint clear of all the bundles and of the lift
+public class PlacementCheck {
+    private static final int PLACEMENTS = 3;
+
+    public static void main(String... args) {
+        int yards = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int failures = 0;
+        int empty = 0;
+        long nanos = 0;
+        for (long seed = 1; seed <= yards; seed++) {
+            Random random = new Random(seed);
+            YardLayout layout = new YardLayout();
+            layout.seed = seed;
+            layout.rows = 10 + random.nextInt(30);
+            layout.stacksPerRow = 10 + random.nextInt(50);
+            layout.angleJitter = random.nextInt(20);
+            Yard yard = YardGenerator.generate(layout);
+            // A write builds the clearance grid, which the search then reads its obstacles from
+            yard.modifyLiftProperties(new LiftDto(yard.getLift()));
+            double maxX = layout.origin.getX() + layout.stacksPerRow * (layout.bundleWidth + layout.stackGap);
+            double maxY = layout.origin.getY() + layout.rows * (layout.bundleLength + layout.aisleWidth);
+            List<CenteredRectangle> obstacles = getObstacles(yard);
+            for (int i = 0; i < queries; i++) {
+                Point2D target = new Point2D(random.nextDouble() * maxX, random.nextDouble() * maxY);
+                double width = 1 + random.nextInt(4) * 0.5;
+                double length = 1 + random.nextInt(4) * 0.5;
+                double angle = random.nextInt(12) * 15;
+                long start = System.nanoTime();
+                List<Point2D> placements = yard.findFreePlacements(target, width, length, angle, PLACEMENTS);
+                nanos += System.nanoTime() - start;
+                if (placements.isEmpty()) empty++;
+                for (Point2D placement : placements) {
+                    CenteredRectangle footprint = new CenteredRectangle(placement, width, length, angle);
+                    for (CenteredRectangle obstacle : obstacles) {
+                        if (GeomHelper.rectangleCollidesRectangle(footprint, obstacle)) {
+                            failures++;
+                            System.out.println("Cour " + seed + ", requête " + i + " : la position " + placement.getX()
+                                + ", " + placement.getY() + " n'est pas libre");
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        int checked = yards * queries;
+        System.out.println(checked - failures + "/" + checked + " requêtes sans chevauchement (" + empty + " sans position, "
+            + nanos / checked / 1000 + " µs en moyenne)");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static List<CenteredRectangle> getObstacles(Yard yard) {
+        List<CenteredRectangle> obstacles = new ArrayList<>();
+        for (Bundle bundle : yard.getBundles()) {
+            obstacles.add(new CenteredRectangle(bundle));
+        }
+        for (Lift lift : yard.getLifts()) {
+            obstacles.add(new CenteredRectangle(new LiftDto(lift)));
+        }
+        return obstacles;
+    }
+}
@@ -0,0 +1,39 @@
+package checks;
+
+import domain.controllers.RelayoutChecks;
+import domain.controllers.RelayoutConfig;
+import domain.controllers.RelayoutOptimizer;
+import domain.entities.Yard;
+import helpers.YardGenerator;
+import helpers.YardLayout;
+
+import java.util.Random;
+
+// The cost the optimizer keeps up to date move after move must stay equal to the cost recomputed from scratch
+public class RelayoutCostCheck {
+    private static final double TOLERANCE = 1e-6;
+
+    public static void main(String... args) {
+        int yards = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        long moves = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int failures = 0;
+        for (long seed = 1; seed <= yards; seed++) {
+            Random random = new Random(seed);
+            YardLayout layout = new YardLayout();
+            layout.seed = seed;
+            layout.rows = 2 + random.nextInt(8);
+            layout.stacksPerRow = 2 + random.nextInt(15);
+            Yard yard = YardGenerator.generate(layout);
+            RelayoutConfig config = new RelayoutConfig();
+            config.seed = seed;
+            config.maxStackHeight = 2 + random.nextInt(5);
+            double drift = RelayoutChecks.checkIncrementalCost(new RelayoutOptimizer(yard, config), moves);
+            if (drift > TOLERANCE) {
+                failures++;
+                System.out.println("Cour " + seed + " : écart de coût " + drift);
+            }
+        }
+        System.out.println(yards - failures + "/" + yards + " cours sans écart de coût");
+        if (failures > 0) System.exit(1);
+    }
+}
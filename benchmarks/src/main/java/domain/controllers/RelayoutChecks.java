@@ -0,0 +1,8 @@
+package domain.controllers;
+
+// Opens the package-private hooks of the optimizer to the checks, which live outside the editor's sources
+public class RelayoutChecks {
+    public static double checkIncrementalCost(RelayoutOptimizer optimizer, long moves) {
+        return optimizer.checkIncrementalCost(moves);
+    }
+}
@@ -0,0 +1,34 @@
+package domain.controllers;
+
+import domain.dtos.YardReport;
+import domain.entities.Yard;
+import domain.entities.YardSnapshot;
+import helpers.STLCreator;
+import helpers.SerializationHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+// Works on its own Yard instance, so any number of files can be processed at the same time
+public class BatchController {
+    private static final String STL_EXTENSION = ".stl";
+
+    public YardReport processYard(File yardFile, File outputDirectory) throws IOException, ClassNotFoundException {
+        Yard yard = SerializationHelper.readYard(yardFile);
+        List<String> problems = yard.validate();
+        YardSnapshot snapshot = yard.snapshot();
+        SerializationHelper.writeTextFile(
+            STLCreator.generateSTL(snapshot.getBundles()),
+            new File(outputDirectory, baseName(yardFile) + STL_EXTENSION)
+        );
+        SerializationHelper.writeYard(yard, new File(outputDirectory, yardFile.getName()));
+        return new YardReport(yardFile.getName(), snapshot, problems);
+    }
+
+    private String baseName(File file) {
+        String name = file.getName();
+        int extensionIndex = name.lastIndexOf('.');
+        return extensionIndex > 0 ? name.substring(0, extensionIndex) : name;
+    }
+}
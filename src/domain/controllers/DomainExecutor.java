@@ -0,0 +1,56 @@
+package domain.controllers;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+public class DomainExecutor implements Executor {
+    private final ExecutorService executor;
+    private volatile Thread domainThread;
+
+    public DomainExecutor(String name) {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            domainThread = thread;
+            return thread;
+        });
+    }
+
+    public boolean isDomainThread() {
+        return Thread.currentThread() == domainThread;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (isDomainThread()) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    // Blocks the caller until the domain thread ran the task, runs it inline when already on the domain thread
+    public <T> T call(Supplier<T> task) {
+        if (isDomainThread()) {
+            return task.get();
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new CompletionException(cause);
+        }
+    }
+}
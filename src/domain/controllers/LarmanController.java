@@ -2,149 +2,547 @@ package domain.controllers;
 
 import domain.dtos.BundleDto;
 import domain.dtos.LiftDto;
+import domain.dtos.RelayoutPlan;
+import domain.dtos.RetrievalPlan;
+import domain.dtos.SimulationReport;
 import domain.entities.Bundle;
+import domain.entities.Lift;
 import domain.entities.Yard;
-import helpers.Converter;
+import domain.entities.YardSnapshot;
+import domain.events.IYardListener;
+import domain.events.YardChange;
+import domain.events.YardChangeSet;
+import domain.metrics.MetricsRegistry;
+import domain.simulation.Simulation;
+import domain.simulation.SimulationConfig;
+import enums.LiftMotion;
+import enums.YardChangeType;
+import helpers.ConfigHelper;
 import helpers.Point2D;
+import helpers.STLCreator;
+import helpers.SerializationHelper;
 import helpers.UndoRedo;
 
-import java.util.Comparator;
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+// One session per open yard, with its own domain thread, undo history and file state
 public class LarmanController {
-    private static final LarmanController instance = new LarmanController();
-    private Yard yard;
+    private static final String QUEUE_WAIT = "domain.queueWait";
+    private static final AtomicInteger sessionCount = new AtomicInteger();
+    private final int session = sessionCount.incrementAndGet();
+    private final DomainExecutor domainExecutor = new DomainExecutor("domain-" + session);
+    private final MetricsRegistry metrics = new MetricsRegistry(session);
+    private final UndoRedo history = new UndoRedo(this);
+    private volatile Executor uiExecutor = Runnable::run;
+    private volatile Yard yard;
+    private volatile RelayoutOptimizer relayoutOptimizer;
+    private Map<UUID, BundleDto> bundleDtoCache = new ConcurrentHashMap<>();
+    private List<IYardListener> yardListeners = new CopyOnWriteArrayList<>();
+    private int commandDepth = 0;
+    private boolean yardReplaced = false;
+    // Written on the domain thread after every command, so that the UI can read them without waiting on it
+    private volatile boolean canUndo = false;
+    private volatile boolean canRedo = false;
+    private volatile File lastFile;
+    private volatile boolean savedOnce = false;
+    private volatile File lastSTLFile;
 
-    private LarmanController() {
-        clearYard();
+    public LarmanController() {
+        this(new Yard());
     }
 
-    public static LarmanController getInstance() {
-        return instance;
+    public LarmanController(Yard yard) {
+        this.yard = yard;
+        yard.setHistory(history);
     }
 
-    public void clearYard() {
-        yard = new Yard();
+    // Stops the domain thread once the queued commands have run, and releases the session's metrics bean and dump
+    public void close() {
+        metrics.stopDump();
+        metrics.unregisterMBean();
+        domainExecutor.shutdown();
     }
 
-    public void setYard(Yard newYard) {
-        yard = newYard;
+    public UndoRedo getHistory() {
+        return history;
+    }
+
+    public File getLastFile() {
+        return lastFile;
+    }
+
+    public void setLastFile(File lastFile) {
+        this.lastFile = lastFile;
+    }
+
+    public boolean isSavedOnce() {
+        return savedOnce;
+    }
+
+    public void setSavedOnce(boolean savedOnce) {
+        this.savedOnce = savedOnce;
+    }
+
+    public File getLastSTLFile() {
+        return lastSTLFile;
+    }
+
+    public void setLastSTLFile(File lastSTLFile) {
+        this.lastSTLFile = lastSTLFile;
+    }
+
+    // Command results and yard changes are handed back to the UI through this executor
+    public void setUiExecutor(Executor uiExecutor) {
+        this.uiExecutor = uiExecutor;
+    }
+
+    public void addYardListener(IYardListener listener) {
+        yardListeners.add(listener);
+    }
+
+    public void removeYardListener(IYardListener listener) {
+        yardListeners.remove(listener);
+    }
+
+    public void clearYardListeners() {
+        yardListeners.clear();
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    private CompletableFuture<Void> runCommand(String name, Runnable command) {
+        return callCommand(name, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    // The yard is only mutated on the domain thread, one command at a time
+    private <T> CompletableFuture<T> callCommand(String name, Supplier<T> command) {
+        if (domainExecutor.isDomainThread()) {
+            return CompletableFuture.completedFuture(executeCommand(name, command));
+        }
+        long submitted = System.nanoTime();
+        return domainExecutor.submit(() -> {
+                metrics.histogram(QUEUE_WAIT).record(System.nanoTime() - submitted);
+                return executeCommand(name, command);
+            })
+            .whenComplete((result, exception) -> {
+                if (exception != null) exception.printStackTrace();
+            })
+            .thenApplyAsync(result -> result, uiExecutor);
+    }
+
+    // Queries read the yard from the calling thread, concurrently with the domain thread
+    private <T> T query(String name, Function<Yard, T> query) {
+        Yard current = yard;
+        return metrics.time(name, () -> current.read(() -> query.apply(current)));
+    }
+
+    // For queries that only copy scalar fields, without walking any collection of the yard
+    private <T> T peek(String name, Function<Yard, T> query) {
+        Yard current = yard;
+        return metrics.time(name, () -> current.peek(() -> query.apply(current)));
+    }
+
+    // The yard is captured on the domain thread, after the commands already queued, then read in the background
+    private <T> CompletableFuture<T> readInBackground(String name, Function<Yard, T> task) {
+        return domainExecutor.submit(() -> yard)
+            .thenApplyAsync(backgroundYard -> metrics.time(name, () -> task.apply(backgroundYard)), ForkJoinPool.commonPool())
+            .whenComplete((result, exception) -> {
+                if (exception != null) exception.printStackTrace();
+            })
+            .thenApplyAsync(result -> result, uiExecutor);
+    }
+
+    // Every change made while the outermost command runs is published as a single change set
+    private <T> T executeCommand(String name, Supplier<T> command) {
+        commandDepth++;
+        try {
+            return metrics.time(name, command);
+        } finally {
+            commandDepth--;
+            if (commandDepth == 0) {
+                publishChanges();
+            }
+        }
+    }
+
+    private void publishChanges() {
+        YardChangeSet yardChanges = yard.takeChanges();
+        List<YardChange> changes = new ArrayList<>();
+        if (yardReplaced) {
+            yardReplaced = false;
+            changes.add(new YardChange(YardChangeType.YARD_REPLACED));
+        }
+        changes.addAll(yardChanges.getChanges());
+        boolean undoAvailable = history.getUndoSize() > 0;
+        boolean redoAvailable = history.getRedoSize() > 0;
+        if (undoAvailable != canUndo || redoAvailable != canRedo) {
+            canUndo = undoAvailable;
+            canRedo = redoAvailable;
+            changes.add(new YardChange(YardChangeType.HISTORY_CHANGED));
+        }
+        if (!changes.isEmpty()) {
+            YardChangeSet changeSet = new YardChangeSet(changes);
+            for (IYardListener listener : yardListeners) {
+                uiExecutor.execute(() -> listener.onYardChanged(changeSet));
+            }
+        }
+    }
+
+    public CompletableFuture<Void> clearYard() {
+        return setYard(new Yard());
+    }
+
+    public CompletableFuture<Void> setYard(Yard newYard) {
+        return runCommand("setYard", () -> {
+            newYard.setHistory(history);
+            yard = newYard;
+            bundleDtoCache.clear();
+            yardReplaced = true;
+        });
     }
 
     public Yard getYard() {
         return yard;
     }
 
-    public BundleDto createBundle(Point2D position) {
-        Bundle bundle = yard.createBundle(position);
-        if (bundle != null) {
-            return new BundleDto(bundle);
-        } else {
+    public CompletableFuture<Boolean> openYard(File file) {
+        return callCommand("openYard", () -> {
+            try {
+                setYard(SerializationHelper.readYard(file));
+                return true;
+            } catch (IOException | ClassNotFoundException e) {
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+
+    public CompletableFuture<Void> saveYard(File file) {
+        return readInBackground("saveYard", savedYard -> {
+            try {
+                SerializationHelper.writeYard(savedYard, file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> exportSTL(File file) {
+        return readInBackground("exportSTL", exportedYard -> {
+            try {
+                SerializationHelper.writeTextFile(STLCreator.generateSTL(exportedYard.snapshot().getBundles()), file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
             return null;
+        });
+    }
+
+    public CompletableFuture<YardSnapshot> snapshot() {
+        return readInBackground("snapshot", Yard::snapshot);
+    }
+
+    // The plan is made on a copy, so that its parallel evaluation holds no lock on the yard being edited
+    public CompletableFuture<RetrievalPlan> planRetrieval(String idOrBarcode) {
+        return readInBackground("planRetrieval", plannedYard -> {
+            Yard copy = plannedYard.copy();
+            copy.buildClearanceGrid();
+            return new RetrievalPlanner(copy).plan(idOrBarcode);
+        });
+    }
+
+    // Progress is reported on the UI executor; a cancelled optimization still returns its best layout
+    public CompletableFuture<RelayoutPlan> optimizeLayout(DoubleConsumer progress) {
+        return readInBackground("optimizeLayout", optimizedYard -> {
+            RelayoutOptimizer optimizer = new RelayoutOptimizer(optimizedYard);
+            relayoutOptimizer = optimizer;
+            return optimizer.optimize(fraction -> uiExecutor.execute(() -> progress.accept(fraction)));
+        });
+    }
+
+    public void cancelLayoutOptimization() {
+        RelayoutOptimizer optimizer = relayoutOptimizer;
+        if (optimizer != null) optimizer.cancel();
+    }
+
+    // The yard may have been edited while the plan was made; a plan that no longer fits it is refused
+    public CompletableFuture<Boolean> applyRelayout(RelayoutPlan plan) {
+        return callCommand("applyRelayout", () -> {
+            if (!yard.canApplyMoves(plan.moves)) {
+                metrics.increment("applyRelayout.rejected");
+                return false;
+            }
+            history.addCurrentYard();
+            yard.applyMoves(plan.moves);
+            return true;
+        });
+    }
+
+    // The simulation runs on a copy, the yard itself is left as is
+    public CompletableFuture<SimulationReport> simulate(SimulationConfig config) {
+        return readInBackground("simulate", simulatedYard -> new Simulation(simulatedYard.copy(), config).run());
+    }
+
+    public CompletableFuture<Void> saveYardState() {
+        return runCommand("saveYardState", history::addCurrentYard);
+    }
+
+    public CompletableFuture<Void> clearHistory() {
+        return runCommand("clearHistory", history::clear);
+    }
+
+    public boolean canUndo() {
+        return canUndo;
+    }
+
+    public boolean canRedo() {
+        return canRedo;
+    }
+
+    public CompletableFuture<Void> undo() {
+        return runCommand("undo", () -> {
+            try {
+                setYard(history.undo());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public CompletableFuture<Void> redo() {
+        return runCommand("redo", () -> {
+            try {
+                setYard(history.redo());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    public CompletableFuture<BundleDto> createBundle(Point2D position) {
+        return callCommand("createBundle", () -> {
+            Bundle bundle = yard.createBundle(position);
+            if (bundle != null) {
+                return toBundleDto(bundle);
+            } else {
+                metrics.increment("createBundle.rejected");
+                return null;
+            }
+        });
+    }
+
+    public List<Point2D> findFreePlacements(Point2D position, int count) {
+        return query("findFreePlacements", yard -> yard.findFreePlacements(
+            position, ConfigHelper.bundleWidth, ConfigHelper.bundleLength, ConfigHelper.bundleAngle, count
+        ));
+    }
+
+    // New bundles take the last used dimensions, so the free spot is searched for those
+    public CompletableFuture<BundleDto> createBundleInFreeSpace(Point2D position) {
+        return callCommand("createBundleInFreeSpace", () -> {
+            List<Point2D> placements = yard.findFreePlacements(
+                position, ConfigHelper.bundleWidth, ConfigHelper.bundleLength, ConfigHelper.bundleAngle, 1
+            );
+            Bundle bundle = placements.isEmpty() ? null : yard.createBundle(placements.get(0));
+            if (bundle != null) {
+                return toBundleDto(bundle);
+            } else {
+                metrics.increment("createBundleInFreeSpace.rejected");
+                return null;
+            }
+        });
+    }
+
+    private BundleDto toBundleDto(Bundle bundle) {
+        BundleDto bundleDto = bundleDtoCache.get(bundle.getUuid());
+        if (bundleDto == null || bundleDto.version != bundle.getVersion()) {
+            bundleDto = new BundleDto(bundle);
+            bundleDtoCache.put(bundle.getUuid(), bundleDto);
         }
+        return bundleDto;
     }
 
-    private List<Bundle> sortBundlesZ(List<Bundle> bundles) {
-        bundles.sort(Comparator.comparing(Bundle::getZ));
-        return bundles;
+    private List<BundleDto> toBundleDtos(List<Bundle> bundles) {
+        List<BundleDto> bundleDtos = new ArrayList<>(bundles.size());
+        for (Bundle bundle : bundles) {
+            bundleDtos.add(toBundleDto(bundle));
+        }
+        return bundleDtos;
+    }
+
+    private List<BundleDto> toAllBundleDtos(List<Bundle> bundles) {
+        if (bundleDtoCache.size() > bundles.size()) {
+            Set<UUID> ids = new HashSet<>();
+            for (Bundle bundle : bundles) {
+                ids.add(bundle.getUuid());
+            }
+            bundleDtoCache.keySet().retainAll(ids);
+        }
+        return toBundleDtos(bundles);
     }
 
     public List<BundleDto> getBundles() {
-        return Converter.fromBundlesToBundleDtos(yard.getBundles());
+        return query("getBundles", yard -> toAllBundleDtos(yard.getBundles()));
     }
 
     public List<BundleDto> getBundlesSortedZ() {
-        return Converter.fromBundlesToBundleDtos(
-            sortBundlesZ(yard.getBundles())
-        );
+        return query("getBundlesSortedZ", yard -> toAllBundleDtos(yard.getBundlesSortedZ()));
+    }
+
+    public BundleDto getBundle(String id) {
+        return query("getBundle", yard -> {
+            Bundle bundle = yard.getBundle(id);
+            if (bundle != null) {
+                return toBundleDto(bundle);
+            }
+            return null;
+        });
     }
 
     public LiftDto getLift() {
-        return new LiftDto(yard.getLift());
+        return peek("getLift", yard -> new LiftDto(yard.getLift()));
+    }
+
+    public List<LiftDto> getLifts() {
+        return query("getLifts", yard -> {
+            List<LiftDto> liftDtos = new ArrayList<>();
+            for (Lift lift : yard.getLifts()) {
+                liftDtos.add(new LiftDto(lift));
+            }
+            return liftDtos;
+        });
+    }
+
+    public int getActiveLiftIndex() {
+        return query("getActiveLiftIndex", Yard::getActiveLiftIndex);
+    }
+
+    public CompletableFuture<Void> selectLift(int index) {
+        return runCommand("selectLift", () -> yard.selectLift(index));
+    }
+
+    public CompletableFuture<Boolean> addLift(Point2D position) {
+        return callCommand("addLift", () -> yard.addLift(position) != null);
+    }
+
+    public CompletableFuture<Boolean> removeLift(int index) {
+        return callCommand("removeLift", () -> yard.removeLift(index));
+    }
+
+    public CompletableFuture<boolean[]> tickLifts(List<LiftMotion> motions) {
+        return callCommand("tickLifts", () -> yard.tickLifts(motions));
     }
 
     public List<BundleDto> getSelectedBundles(Point2D position) {
-        List<Bundle> bundles = yard.getBundlesAtPosition(position);
-        return Converter.fromBundlesToBundleDtos(
-            sortBundlesZ(bundles)
-        );
+        return query("getSelectedBundles", yard -> toBundleDtos(yard.getBundlesAtPosition(position)));
     }
 
     public BundleDto getTopBundle(Point2D position) {
-        return new BundleDto(yard.getTopBundle(position));
+        return query("getTopBundle", yard -> {
+            Bundle bundle = yard.getTopBundle(position);
+            if (bundle != null) {
+                return toBundleDto(bundle);
+            }
+            return null;
+        });
     }
 
-    public void modifyBundleProperties(BundleDto bundleDto) {
-        UndoRedo.addCurrentYard();
-        yard.modifyBundleProperties(bundleDto);
+    public CompletableFuture<Void> modifyBundleProperties(BundleDto bundleDto) {
+        return runCommand("modifyBundleProperties", () -> {
+            history.addCurrentYard();
+            yard.modifyBundleProperties(bundleDto);
+        });
     }
 
-    public void modifyLiftProperties(LiftDto liftDto) {
-        yard.modifyLiftProperties(liftDto);
+    public CompletableFuture<Void> modifyLiftProperties(LiftDto liftDto) {
+        return runCommand("modifyLiftProperties", () -> yard.modifyLiftProperties(liftDto));
     }
 
-    public void modifyBundlePosition(String id, Point2D position) {
-        yard.modifyBundlePosition(id, position);
+    public CompletableFuture<Void> modifyBundlePosition(String id, Point2D position) {
+        return runCommand("modifyBundlePosition", () -> yard.modifyBundlePosition(id, position));
     }
 
-    public void deleteBundle(String id) {
-        UndoRedo.addCurrentYard();
-        yard.deleteBundle(id);
+    public CompletableFuture<Void> deleteBundle(String id) {
+        return runCommand("deleteBundle", () -> {
+            history.addCurrentYard();
+            yard.deleteBundle(id);
+            UUID uuid = Bundle.parseId(id);
+            if (uuid != null) bundleDtoCache.remove(uuid);
+        });
     }
 
     public List<BundleDto> getCollidingBundles(BundleDto bundleDtoToCheck) {
-        Bundle bundleToCheck = yard.getBundle(bundleDtoToCheck.id);
-        if (bundleToCheck != null) {
-            return Converter.fromBundlesToBundleDtos(
-                yard.getCollidingBundles(bundleToCheck, null)
-            );
-        }
-        return null;
+        return query("getCollidingBundles", yard -> {
+            Bundle bundleToCheck = yard.getBundle(bundleDtoToCheck.id);
+            if (bundleToCheck != null) {
+                return toBundleDtos(yard.getCollidingBundles(bundleToCheck, null));
+            }
+            return null;
+        });
     }
 
     public List<BundleDto> getAllCollidingBundles(BundleDto bundleToCheck) {
-        List<Bundle> collidingBundles = yard.getAllCollidingBundles(bundleToCheck);
-        return Converter.fromBundlesToBundleDtos(collidingBundles);
+        return query("getAllCollidingBundles", yard -> toBundleDtos(yard.getAllCollidingBundles(bundleToCheck)));
+    }
+
+    public CompletableFuture<Void> riseArms() {
+        return runCommand("riseArms", () -> yard.riseArms());
+    }
+
+    public CompletableFuture<Void> lowerArms() {
+        return runCommand("lowerArms", () -> yard.lowerArms());
     }
 
-    public void riseArms() {
-        yard.riseArms();
+    public CompletableFuture<Void> moveLiftToBundle() {
+        return runCommand("moveLiftToBundle", () -> yard.moveLiftToBundle());
     }
 
-    public void lowerArms() {
-        yard.lowerArms();
+    public CompletableFuture<Void> moveLiftForward() {
+        return runCommand("moveLiftForward", () -> yard.moveLiftForward());
     }
 
-    public void moveLiftToBundle() {
-        yard.moveLiftToBundle();
+    public CompletableFuture<Void> moveLiftBackward() {
+        return runCommand("moveLiftBackward", () -> yard.moveLiftBackward());
     }
 
-    public void moveLiftForward() {
-        yard.moveLiftForward();
+    public CompletableFuture<Void> turnLiftRight() {
+        return runCommand("turnLiftRight", () -> yard.turnLiftRight());
     }
 
-    public void moveLiftBackward() {
-        yard.moveLiftBackward();
+    public CompletableFuture<Void> turnLiftLeft() {
+        return runCommand("turnLiftLeft", () -> yard.turnLiftLeft());
     }
 
-    public void turnLiftRight() {
-        yard.turnLiftRight();
+    public CompletableFuture<Void> turnLift(double angle) {
+        return runCommand("turnLift", () -> yard.turnLift(angle));
     }
 
-    public void turnLiftLeft() {
-        yard.turnLiftLeft();
+    public double getMaxLiftTurn(double angle) {
+        return query("getMaxLiftTurn", yard -> yard.getMaxLiftTurn(angle));
     }
 
     public List<BundleDto> getLiftBundles() {
-        List<Bundle> liftBundles = sortBundlesZ(yard.getLift().getBundlesOnLift());
-        return Converter.fromBundlesToBundleDtos(liftBundles);
+        return query("getLiftBundles", yard -> toBundleDtos(yard.sortBundlesZ(new ArrayList<>(yard.getLift().getBundlesOnLift()))));
     }
 
-    public void setLiftBundles() {
-        yard.setLiftBundles();
+    public CompletableFuture<Void> setLiftBundles() {
+        return runCommand("setLiftBundles", () -> yard.setLiftBundles());
     }
 
-    public void clearLiftBundles() {
-        yard.clearLiftBundles();
+    public CompletableFuture<Void> clearLiftBundles() {
+        return runCommand("clearLiftBundles", () -> yard.clearLiftBundles());
     }
-}
\ No newline at end of file
+}
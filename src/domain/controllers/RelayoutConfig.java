@@ -0,0 +1,15 @@
+package domain.controllers;
+
+// Distances are in metres; the weights balance the yard footprint against the retrieval cost of the older bundles
+public class RelayoutConfig {
+    public int threads = Runtime.getRuntime().availableProcessors();
+    public long iterations = 200000;
+    public long seed = 1;
+    public int maxStackHeight = 5;
+    public int rowsPerBlock = 2;
+    public double aisleWidth = 4.0;
+    public double stackGap = 0.3;
+    public double footprintWeight = 1.0;
+    public double distanceWeight = 1.0;
+    public double levelWeight = 5.0;
+}
@@ -0,0 +1,435 @@
+package domain.controllers;
+
+import domain.dtos.BundleMove;
+import domain.dtos.LiftDto;
+import domain.dtos.RelayoutPlan;
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+import helpers.CenteredRectangle;
+import helpers.GeomHelper;
+import helpers.Point2D;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+
+// Stacks the bundles in rows of slots and anneals which bundle goes where; older bundles are worth more near the lift and on top
+public class RelayoutOptimizer {
+    private static final int PROGRESS_STEP = 1000;
+    private final Yard yard;
+    private final RelayoutConfig config;
+    private volatile boolean cancelled = false;
+
+    // What the moves need of each bundle, read with the rest under the yard's lock
+    private String[] bundleIds;
+    private double[] bundleHeights;
+    private long[] bundleVersions;
+    private double[] weights;
+    private double[] slotX;
+    private double[] slotY;
+    private double[] slotDistances;
+    private int[] slotRows;
+    private int[] slotColumns;
+    private int rows;
+    private int columns;
+    private double slotWidth;
+    private double slotLength;
+    private double initialFootprint;
+
+    public RelayoutOptimizer(Yard yard) {
+        this(yard, new RelayoutConfig());
+    }
+
+    public RelayoutOptimizer(Yard yard, RelayoutConfig config) {
+        this.yard = yard;
+        this.config = config;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Returns the best layout found so far when cancelled
+    public RelayoutPlan optimize(DoubleConsumer progress) {
+        RelayoutPlan plan = new RelayoutPlan();
+        boolean prepared = prepare();
+        plan.initialFootprint = initialFootprint;
+        if (!prepared) return plan;
+
+        Layout initialLayout = createInitialLayout();
+        plan.initialCost = initialLayout.getCost();
+        AtomicLong done = new AtomicLong();
+        long total = config.iterations * config.threads;
+        ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+        List<Future<Layout>> chains = new ArrayList<>();
+        for (int chain = 0; chain < config.threads; chain++) {
+            long chainSeed = config.seed + chain;
+            chains.add(executor.submit(() -> anneal(initialLayout.copy(), new Random(chainSeed), done, total, progress)));
+        }
+        Layout bestLayout = initialLayout;
+        try {
+            for (Future<Layout> chain : chains) {
+                Layout layout = chain.get();
+                if (layout.getCost() < bestLayout.getCost()) bestLayout = layout;
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        plan.cost = bestLayout.getCost();
+        plan.footprint = bestLayout.getFootprint();
+        plan.iterations = done.get();
+        plan.cancelled = cancelled;
+        plan.moves = toMoves(bestLayout);
+        return plan;
+    }
+
+    // Plays random moves from the initial layout and returns the largest gap between the running cost and the cost recomputed from scratch
+    double checkIncrementalCost(long moves) {
+        if (!prepare()) return 0;
+        Random random = new Random(config.seed);
+        Layout layout = createInitialLayout();
+        double temperature = estimateTemperature(layout.copy(), random);
+        double drift = 0;
+        for (long i = 0; i < moves; i++) {
+            layout.tryMove(random, temperature);
+            Layout recomputed = layout.copy();
+            recomputed.computeCost();
+            drift = Math.max(drift, Math.abs(recomputed.getCost() - layout.getCost()));
+        }
+        return drift;
+    }
+
+    // Everything the annealing needs of the yard is read here, so that the chains never touch the live bundles
+    private boolean prepare() {
+        return yard.read(() -> {
+            List<Bundle> bundles = new ArrayList<>();
+            for (Bundle bundle : yard.getBundlesSortedZ()) {
+                if (!bundle.isCarried()) bundles.add(bundle);
+            }
+            initialFootprint = getFootprint(bundles);
+            if (bundles.isEmpty()) return false;
+            bundleIds = new String[bundles.size()];
+            bundleHeights = new double[bundles.size()];
+            bundleVersions = new long[bundles.size()];
+            for (int i = 0; i < bundles.size(); i++) {
+                Bundle bundle = bundles.get(i);
+                bundleIds[i] = bundle.getId();
+                bundleHeights[i] = bundle.getHeight();
+                bundleVersions[i] = bundle.getVersion();
+            }
+            List<CenteredRectangle> liftRectangles = new ArrayList<>();
+            for (Lift yardLift : yard.getLifts()) {
+                liftRectangles.add(new CenteredRectangle(new LiftDto(yardLift)));
+            }
+            computeWeights(bundles);
+            computeSlots(bundles, new LiftDto(yard.getLift()), liftRectangles);
+            return true;
+        });
+    }
+
+    private Layout anneal(Layout layout, Random random, AtomicLong done, long total, DoubleConsumer progress) {
+        Layout bestLayout = layout.copy();
+        double startTemperature = estimateTemperature(layout.copy(), random);
+        double endTemperature = startTemperature * 1e-3;
+        for (long i = 0; i < config.iterations && !cancelled; i++) {
+            double temperature = startTemperature * Math.pow(endTemperature / startTemperature, (double) i / config.iterations);
+            if (layout.tryMove(random, temperature) && layout.getCost() < bestLayout.getCost()) {
+                bestLayout = layout.copy();
+            }
+            if ((i + 1) % PROGRESS_STEP == 0) {
+                long progressed = done.addAndGet(PROGRESS_STEP);
+                if (progress != null) progress.accept((double) progressed / total);
+            }
+        }
+        return bestLayout;
+    }
+
+    private double estimateTemperature(Layout layout, Random random) {
+        double totalIncrease = 0;
+        int increases = 0;
+        for (int i = 0; i < 200; i++) {
+            double before = layout.getCost();
+            layout.tryMove(random, Double.POSITIVE_INFINITY);
+            double increase = layout.getCost() - before;
+            if (increase > 0) {
+                totalIncrease += increase;
+                increases++;
+            }
+        }
+        return increases == 0 ? 1.0 : totalIncrease / increases;
+    }
+
+    private void computeWeights(List<Bundle> bundles) {
+        long oldest = Long.MAX_VALUE;
+        long newest = Long.MIN_VALUE;
+        for (Bundle bundle : bundles) {
+            if (bundle.getDate() == null) continue;
+            oldest = Math.min(oldest, bundle.getDate().toEpochDay());
+            newest = Math.max(newest, bundle.getDate().toEpochDay());
+        }
+        weights = new double[bundles.size()];
+        for (int i = 0; i < bundles.size(); i++) {
+            Bundle bundle = bundles.get(i);
+            weights[i] = bundle.getDate() == null || newest == oldest
+                ? 1.0
+                : 1.0 + (double) (newest - bundle.getDate().toEpochDay()) / (newest - oldest);
+        }
+    }
+
+    // Rows of slots from the corner of the current yard, with an aisle after every block of rows; slots under a lift are left out
+    private void computeSlots(List<Bundle> bundles, LiftDto lift, List<CenteredRectangle> liftRectangles) {
+        double maxWidth = 0;
+        double maxLength = 0;
+        double originX = Double.POSITIVE_INFINITY;
+        double originY = Double.POSITIVE_INFINITY;
+        for (Bundle bundle : bundles) {
+            maxWidth = Math.max(maxWidth, bundle.getWidth());
+            maxLength = Math.max(maxLength, bundle.getLength());
+            for (Point2D point : new CenteredRectangle(bundle).getPoints()) {
+                originX = Math.min(originX, point.getX());
+                originY = Math.min(originY, point.getY());
+            }
+        }
+        slotWidth = maxWidth + config.stackGap;
+        slotLength = maxLength + config.stackGap;
+        int neededSlots = (bundles.size() + config.maxStackHeight - 1) / config.maxStackHeight;
+        int targetSlots = (int) Math.ceil(neededSlots * 1.25) + 1;
+        columns = (int) Math.ceil(Math.sqrt(targetSlots));
+        rows = (targetSlots + columns - 1) / columns;
+        List<double[]> slots;
+        do {
+            slots = new ArrayList<>();
+            for (int row = 0; row < rows; row++) {
+                double y = originY + row * slotLength + (row / config.rowsPerBlock) * config.aisleWidth + slotLength / 2;
+                for (int column = 0; column < columns; column++) {
+                    double x = originX + column * slotWidth + slotWidth / 2;
+                    CenteredRectangle slot = new CenteredRectangle(new Point2D(x, y), slotWidth, slotLength, 0);
+                    boolean underLift = false;
+                    for (CenteredRectangle liftRectangle : liftRectangles) {
+                        underLift |= GeomHelper.rectangleCollidesRectangle(slot, liftRectangle);
+                    }
+                    if (!underLift) {
+                        slots.add(new double[] {x, y, row, column});
+                    }
+                }
+            }
+            rows++;
+        } while (slots.size() < neededSlots);
+        slotX = new double[slots.size()];
+        slotY = new double[slots.size()];
+        slotRows = new int[slots.size()];
+        slotColumns = new int[slots.size()];
+        slotDistances = new double[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            double[] slot = slots.get(i);
+            slotX[i] = slot[0];
+            slotY[i] = slot[1];
+            slotRows[i] = (int) slot[2];
+            slotColumns[i] = (int) slot[3];
+            slotDistances[i] = Math.hypot(slot[0] - lift.position.getX(), slot[1] - lift.position.getY());
+        }
+    }
+
+    // Slots nearest to the lift first, each stack filled with its oldest bundle on top
+    private Layout createInitialLayout() {
+        Integer[] bundleOrder = new Integer[bundleIds.length];
+        for (int i = 0; i < bundleOrder.length; i++) bundleOrder[i] = i;
+        Arrays.sort(bundleOrder, (a, b) -> Double.compare(weights[b], weights[a]));
+        Integer[] slotOrder = new Integer[slotX.length];
+        for (int i = 0; i < slotOrder.length; i++) slotOrder[i] = i;
+        Arrays.sort(slotOrder, Comparator.comparingDouble(slot -> slotDistances[slot]));
+        Layout layout = new Layout(slotX.length, config.maxStackHeight, bundleIds.length);
+        int next = 0;
+        for (int slot : slotOrder) {
+            int count = Math.min(config.maxStackHeight, bundleOrder.length - next);
+            for (int level = count - 1; level >= 0; level--) {
+                layout.push(slot, bundleOrder[next + level]);
+            }
+            next += count;
+            if (next == bundleOrder.length) break;
+        }
+        layout.computeCost();
+        return layout;
+    }
+
+    private List<BundleMove> toMoves(Layout layout) {
+        List<BundleMove> moves = new ArrayList<>(bundleIds.length);
+        for (int slot = 0; slot < slotX.length; slot++) {
+            double z = 0;
+            for (int level = 0; level < layout.heights[slot]; level++) {
+                int bundle = layout.stacks[slot][level];
+                moves.add(new BundleMove(bundleIds[bundle], new Point2D(slotX[slot], slotY[slot]), 0, z, bundleVersions[bundle]));
+                z += bundleHeights[bundle];
+            }
+        }
+        return moves;
+    }
+
+    private static double getFootprint(List<Bundle> bundles) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Bundle bundle : bundles) {
+            for (Point2D point : new CenteredRectangle(bundle).getPoints()) {
+                minX = Math.min(minX, point.getX());
+                minY = Math.min(minY, point.getY());
+                maxX = Math.max(maxX, point.getX());
+                maxY = Math.max(maxY, point.getY());
+            }
+        }
+        return bundles.isEmpty() ? 0 : (maxX - minX) * (maxY - minY);
+    }
+
+    // Bundle indices per slot, bottom first; a chain works on its own copy
+    private class Layout {
+        private final int[][] stacks;
+        private final int[] heights;
+        private final int[] slotOf;
+        private final int[] levelOf;
+        private final int[] rowCounts;
+        private final int[] columnCounts;
+        // Sum of the weights of the bundles in each slot, what one more or one less bundle on top costs them
+        private final double[] stackWeights;
+        private double retrievalCost;
+        private double footprint;
+
+        private Layout(int slots, int maxHeight, int bundleCount) {
+            stacks = new int[slots][maxHeight];
+            heights = new int[slots];
+            slotOf = new int[bundleCount];
+            levelOf = new int[bundleCount];
+            rowCounts = new int[rows + 1];
+            columnCounts = new int[columns];
+            stackWeights = new double[slots];
+        }
+
+        private Layout(Layout other) {
+            stacks = new int[other.stacks.length][];
+            for (int i = 0; i < stacks.length; i++) stacks[i] = other.stacks[i].clone();
+            heights = other.heights.clone();
+            slotOf = other.slotOf.clone();
+            levelOf = other.levelOf.clone();
+            rowCounts = other.rowCounts.clone();
+            columnCounts = other.columnCounts.clone();
+            stackWeights = other.stackWeights.clone();
+            retrievalCost = other.retrievalCost;
+            footprint = other.footprint;
+        }
+
+        private Layout copy() {
+            return new Layout(this);
+        }
+
+        private double getCost() {
+            return config.footprintWeight * footprint + retrievalCost;
+        }
+
+        private double getFootprint() {
+            return footprint;
+        }
+
+        private void push(int slot, int bundle) {
+            if (heights[slot] == 0) useSlot(slot, 1);
+            stacks[slot][heights[slot]] = bundle;
+            slotOf[bundle] = slot;
+            levelOf[bundle] = heights[slot];
+            heights[slot]++;
+            stackWeights[slot] += weights[bundle];
+        }
+
+        private int pop(int slot) {
+            heights[slot]--;
+            if (heights[slot] == 0) useSlot(slot, -1);
+            int bundle = stacks[slot][heights[slot]];
+            stackWeights[slot] = heights[slot] == 0 ? 0 : stackWeights[slot] - weights[bundle];
+            return bundle;
+        }
+
+        private void useSlot(int slot, int change) {
+            rowCounts[slotRows[slot]] += change;
+            columnCounts[slotColumns[slot]] += change;
+        }
+
+        private double term(int bundle, int slot, int bundlesAbove) {
+            return weights[bundle] * (config.distanceWeight * slotDistances[slot] + config.levelWeight * bundlesAbove);
+        }
+
+        private void computeCost() {
+            retrievalCost = 0;
+            for (int bundle = 0; bundle < slotOf.length; bundle++) {
+                retrievalCost += term(bundle, slotOf[bundle], heights[slotOf[bundle]] - 1 - levelOf[bundle]);
+            }
+            footprint = computeFootprint();
+        }
+
+        private double computeFootprint() {
+            int firstRow = 0;
+            int lastRow = rowCounts.length - 1;
+            int firstColumn = 0;
+            int lastColumn = columnCounts.length - 1;
+            while (firstRow < lastRow && rowCounts[firstRow] == 0) firstRow++;
+            while (lastRow > firstRow && rowCounts[lastRow] == 0) lastRow--;
+            while (firstColumn < lastColumn && columnCounts[firstColumn] == 0) firstColumn++;
+            while (lastColumn > firstColumn && columnCounts[lastColumn] == 0) lastColumn--;
+            double width = (lastColumn - firstColumn + 1) * slotWidth;
+            double length = (lastRow - firstRow + 1) * slotLength + (lastRow / config.rowsPerBlock - firstRow / config.rowsPerBlock) * config.aisleWidth;
+            return width * length;
+        }
+
+        // Either moves a top bundle onto another stack or swaps two bundles, accepted with the Metropolis rule
+        private boolean tryMove(Random random, double temperature) {
+            double before = getCost();
+            if (random.nextBoolean()) {
+                int from = slotOf[random.nextInt(slotOf.length)];
+                int to = random.nextInt(heights.length);
+                if (from == to || heights[to] == stacks[to].length) return false;
+                int bundle = pop(from);
+                // Every bundle left in the first stack has one less above it, every bundle of the second one more
+                double change = term(bundle, to, 0) - term(bundle, from, 0)
+                    + config.levelWeight * (stackWeights[to] - stackWeights[from]);
+                push(to, bundle);
+                double previousFootprint = footprint;
+                retrievalCost += change;
+                footprint = computeFootprint();
+                if (accept(getCost() - before, temperature, random)) return true;
+                pop(to);
+                push(from, bundle);
+                retrievalCost -= change;
+                footprint = previousFootprint;
+                return false;
+            } else {
+                int first = random.nextInt(slotOf.length);
+                int second = random.nextInt(slotOf.length);
+                if (first == second) return false;
+                int firstSlot = slotOf[first];
+                int secondSlot = slotOf[second];
+                int firstAbove = heights[firstSlot] - 1 - levelOf[first];
+                int secondAbove = heights[secondSlot] - 1 - levelOf[second];
+                double change = term(first, secondSlot, secondAbove) + term(second, firstSlot, firstAbove)
+                    - term(first, firstSlot, firstAbove) - term(second, secondSlot, secondAbove);
+                if (!accept(change, temperature, random)) return false;
+                int firstLevel = levelOf[first];
+                stacks[firstSlot][firstLevel] = second;
+                stacks[secondSlot][levelOf[second]] = first;
+                levelOf[first] = levelOf[second];
+                levelOf[second] = firstLevel;
+                slotOf[first] = secondSlot;
+                slotOf[second] = firstSlot;
+                stackWeights[firstSlot] += weights[second] - weights[first];
+                stackWeights[secondSlot] += weights[first] - weights[second];
+                retrievalCost += change;
+                return true;
+            }
+        }
+
+        private boolean accept(double change, double temperature, Random random) {
+            return change <= 0 || random.nextDouble() < Math.exp(-change / temperature);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package domain.controllers;
+
+import domain.dtos.RetrievalPlan;
+import domain.dtos.RetrievalStep;
+import domain.entities.Bundle;
+import domain.entities.Yard;
+import enums.RetrievalAction;
+import helpers.CenteredRectangle;
+import helpers.Point2D;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Every stack resting on the target is set down elsewhere before the target is picked; the orders are tried in parallel
+public class RetrievalPlanner {
+    private static final int MAX_ORDERED_STACKS = 6;
+    private final Yard yard;
+
+    public RetrievalPlanner(Yard yard) {
+        this.yard = yard;
+    }
+
+    public RetrievalPlan plan(String idOrBarcode) {
+        Bundle target = yard.findBundle(idOrBarcode);
+        if (target == null) return null;
+        Map<Bundle, List<Bundle>> stacks = new LinkedHashMap<>();
+        for (Bundle bundle : yard.getSupportedBundles(target)) {
+            stacks.put(bundle, yard.getStack(bundle));
+        }
+        Point2D start = yard.getLift().getArmsPosition();
+        List<List<Bundle>> orders = getOrders(new ArrayList<>(stacks.keySet()), start);
+        List<RetrievalPlan> plans = orders.parallelStream()
+            .map(order -> evaluate(target, order, stacks, start))
+            .collect(Collectors.toList());
+        RetrievalPlan bestPlan = null;
+        for (RetrievalPlan plan : plans) {
+            if (bestPlan == null || (plan.feasible && (!bestPlan.feasible || plan.travel < bestPlan.travel))) {
+                bestPlan = plan;
+            }
+        }
+        bestPlan.evaluatedPlans = plans.size();
+        return bestPlan;
+    }
+
+    private List<List<Bundle>> getOrders(List<Bundle> bundles, Point2D start) {
+        List<List<Bundle>> orders = new ArrayList<>();
+        if (bundles.size() <= MAX_ORDERED_STACKS) {
+            permute(bundles, 0, orders);
+        } else {
+            List<Bundle> nearestFirst = new ArrayList<>(bundles);
+            nearestFirst.sort(Comparator.comparingDouble(bundle -> distance(start, bundle.getPosition())));
+            orders.add(nearestFirst);
+        }
+        return orders;
+    }
+
+    private void permute(List<Bundle> bundles, int index, List<List<Bundle>> orders) {
+        if (index >= bundles.size() - 1) {
+            orders.add(new ArrayList<>(bundles));
+            return;
+        }
+        for (int i = index; i < bundles.size(); i++) {
+            Collections.swap(bundles, index, i);
+            permute(bundles, index + 1, orders);
+            Collections.swap(bundles, index, i);
+        }
+    }
+
+    private RetrievalPlan evaluate(Bundle target, List<Bundle> order, Map<Bundle, List<Bundle>> stacks, Point2D start) {
+        RetrievalPlan plan = new RetrievalPlan(target.getId());
+        Set<Bundle> movedBundles = new HashSet<>();
+        List<CenteredRectangle> reserved = new ArrayList<>();
+        Point2D liftPosition = start;
+        for (Bundle bottom : order) {
+            List<Bundle> stack = new ArrayList<>();
+            for (Bundle bundle : stacks.get(bottom)) {
+                if (movedBundles.add(bundle)) stack.add(bundle);
+            }
+            List<String> ids = stack.stream().map(Bundle::getId).collect(Collectors.toList());
+            plan.steps.add(new RetrievalStep(RetrievalAction.PICK, ids, bottom.getPosition(), bottom.getAngle(), bottom.getZ()));
+            plan.travel += distance(liftPosition, bottom.getPosition());
+
+            CenteredRectangle footprint = getFootprint(stack, bottom);
+            List<Point2D> placements = yard.findFreePlacements(
+                bottom.getPosition(), footprint.getWidth(), footprint.getHeight(), bottom.getAngle(), 1, reserved
+            );
+            if (placements.isEmpty()) {
+                plan.feasible = false;
+                return plan;
+            }
+            Point2D placement = placements.get(0);
+            Point2D drop = new Point2D(
+                placement.getX() + bottom.getPosition().getX() - footprint.getX(),
+                placement.getY() + bottom.getPosition().getY() - footprint.getY()
+            );
+            reserved.add(new CenteredRectangle(placement, footprint.getWidth(), footprint.getHeight(), bottom.getAngle()));
+            plan.steps.add(new RetrievalStep(RetrievalAction.DROP, ids, drop, bottom.getAngle(), 0));
+            plan.travel += distance(bottom.getPosition(), drop);
+            liftPosition = drop;
+        }
+        plan.steps.add(new RetrievalStep(
+            RetrievalAction.RETRIEVE, Collections.singletonList(target.getId()), target.getPosition(), target.getAngle(), target.getZ()
+        ));
+        plan.travel += distance(liftPosition, target.getPosition());
+        return plan;
+    }
+
+    // Bounds of the whole stack, in the frame of its bottom bundle
+    private CenteredRectangle getFootprint(List<Bundle> stack, Bundle bottom) {
+        double radians = Math.toRadians(bottom.getAngle());
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Bundle bundle : stack) {
+            for (Point2D point : new CenteredRectangle(bundle).getPoints()) {
+                double x = point.getX() * cos + point.getY() * sin;
+                double y = point.getY() * cos - point.getX() * sin;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+        }
+        double centerX = (minX + maxX) / 2;
+        double centerY = (minY + maxY) / 2;
+        return new CenteredRectangle(
+            new Point2D(centerX * cos - centerY * sin, centerX * sin + centerY * cos),
+            maxX - minX,
+            maxY - minY,
+            bottom.getAngle()
+        );
+    }
+
+    private static double distance(Point2D from, Point2D to) {
+        return Math.hypot(to.getX() - from.getX(), to.getY() - from.getY());
+    }
+}
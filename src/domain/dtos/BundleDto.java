@@ -1,20 +1,24 @@
 package domain.dtos;
 
 import domain.entities.Bundle;
+import helpers.Point2D;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
 
 public class BundleDto extends Drawable3DDto {
-    public String id;
-    public String color;
-    public LocalDate date;
-    public LocalTime time;
-    public String essence;
-    public String plankSize;
-    public String barcode;
+    public final String id;
+    public final int color;
+    public final LocalDate date;
+    public final LocalTime time;
+    public final String essence;
+    public final String plankSize;
+    public final String barcode;
+    public final long version;
 
     public BundleDto(Bundle bundle) {
         super(bundle);
+        version = bundle.getVersion();
         id = bundle.getId();
         color = bundle.getColor();
         date = bundle.getDate();
@@ -24,6 +28,57 @@ public class BundleDto extends Drawable3DDto {
         barcode = bundle.getBarcode();
     }
 
+    private BundleDto(BundleDto other, double angle, double width, double length, double height,
+                      LocalDate date, LocalTime time, String essence, String plankSize, String barcode) {
+        super(other.position, angle, width, length, height, other.z, other.getTopZ(height));
+        version = other.version;
+        id = other.id;
+        color = other.color;
+        this.date = date;
+        this.time = time;
+        this.essence = essence;
+        this.plankSize = plankSize;
+        this.barcode = barcode;
+    }
+
+    // Edits give a new DTO with the requested properties, for modifyBundleProperties
+
+    public BundleDto withAngle(double angle) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withWidth(double width) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withLength(double length) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withHeight(double height) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withDate(LocalDate date) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withTime(LocalTime time) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withEssence(String essence) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withPlankSize(String plankSize) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
+    public BundleDto withBarcode(String barcode) {
+        return new BundleDto(this, angle, width, length, height, date, time, essence, plankSize, barcode);
+    }
+
     public boolean equals(BundleDto other) {
         if (other == null) return false;
         return id.equals(other.id);
@@ -0,0 +1,24 @@
+package domain.dtos;
+
+import helpers.Point2D;
+
+public class BundleMove {
+    public String id;
+    public Point2D position;
+    public double angle;
+    public double z;
+    // Version of the bundle the move was planned from, 0 when the move does not depend on it
+    public long version;
+
+    public BundleMove(String id, Point2D position, double angle, double z) {
+        this(id, position, angle, z, 0);
+    }
+
+    public BundleMove(String id, Point2D position, double angle, double z, long version) {
+        this.id = id;
+        this.position = position;
+        this.angle = angle;
+        this.z = z;
+        this.version = version;
+    }
+}
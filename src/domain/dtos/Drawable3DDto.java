@@ -1,11 +1,12 @@
 package domain.dtos;
 
 import domain.entities.Drawable3D;
+import helpers.Point2D;
 
 public abstract class Drawable3DDto extends DrawableDto {
-    public double height;
-    public double z;
-    public double topZ;
+    public final double height;
+    public final double z;
+    public final double topZ;
 
     public Drawable3DDto(Drawable3D drawable3D) {
         super(drawable3D);
@@ -13,4 +14,16 @@ public abstract class Drawable3DDto extends DrawableDto {
         z = drawable3D.getZ();
         topZ = drawable3D.getTopZ();
     }
+
+    protected Drawable3DDto(Point2D position, double angle, double width, double length, double height, double z, double topZ) {
+        super(position, angle, width, length);
+        this.height = height;
+        this.z = z;
+        this.topZ = topZ;
+    }
+
+    // The top only has to be computed again when the height changed
+    protected double getTopZ(double height) {
+        return height == this.height ? topZ : z + height;
+    }
 }
@@ -3,16 +3,21 @@ package domain.dtos;
 import domain.entities.Drawable;
 import helpers.Point2D;
 
+// DTOs are shared between the views and cached by the controller, so they never change once built
 public abstract class DrawableDto {
-    public double width;
-    public double length;
-    public double angle;
-    public Point2D position;
+    public final double width;
+    public final double length;
+    public final double angle;
+    public final Point2D position;
 
     public DrawableDto(Drawable drawable) {
-        width = drawable.getWidth();
-        length = drawable.getLength();
-        angle = drawable.getAngle();
-        position = drawable.getPosition();
+        this(drawable.getPosition(), drawable.getAngle(), drawable.getWidth(), drawable.getLength());
+    }
+
+    protected DrawableDto(Point2D position, double angle, double width, double length) {
+        this.width = width;
+        this.length = length;
+        this.angle = angle;
+        this.position = new Point2D(position.getX(), position.getY());
     }
 }
@@ -4,18 +4,49 @@ import domain.entities.Lift;
 import helpers.Point2D;
 
 public class LiftDto extends Drawable3DDto {
-    public double armsWidth;
-    public double armsLength;
-    public double armsHeight;
-    public Point2D armsPosition;
-    public double scale;
+    public final double armsWidth;
+    public final double armsLength;
+    public final double armsHeight;
+    public final Point2D armsPosition;
+    public final double scale;
 
     public LiftDto(Lift lift) {
         super(lift);
         armsWidth = lift.getArmsWidth();
         armsLength = lift.getArmsLength();
         armsHeight = lift.getArmsHeight();
-        armsPosition = lift.getArmsPosition();
+        armsPosition = new Point2D(lift.getArmsPosition().getX(), lift.getArmsPosition().getY());
         scale = lift.getScale();
     }
+
+    private LiftDto(LiftDto other, Point2D position, double angle, double height, double armsHeight, double scale) {
+        super(position, angle, other.width, other.length, height, other.z, other.getTopZ(height));
+        armsWidth = other.armsWidth;
+        armsLength = other.armsLength;
+        this.armsHeight = armsHeight;
+        armsPosition = new Point2D(other.armsPosition.getX(), other.armsPosition.getY());
+        this.scale = scale;
+    }
+
+    // Poses to test or to request, the arms position is left as it was
+
+    public LiftDto withPosition(Point2D position) {
+        return new LiftDto(this, position, angle, height, armsHeight, scale);
+    }
+
+    public LiftDto withAngle(double angle) {
+        return new LiftDto(this, position, angle, height, armsHeight, scale);
+    }
+
+    public LiftDto withHeight(double height) {
+        return new LiftDto(this, position, angle, height, armsHeight, scale);
+    }
+
+    public LiftDto withArmsHeight(double armsHeight) {
+        return new LiftDto(this, position, angle, height, armsHeight, scale);
+    }
+
+    public LiftDto withScale(double scale) {
+        return new LiftDto(this, position, angle, height, armsHeight, scale);
+    }
 }
@@ -0,0 +1,14 @@
+package domain.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RelayoutPlan {
+    public List<BundleMove> moves = new ArrayList<>();
+    public double initialFootprint;
+    public double footprint;
+    public double initialCost;
+    public double cost;
+    public long iterations;
+    public boolean cancelled;
+}
@@ -0,0 +1,16 @@
+package domain.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RetrievalPlan {
+    public String bundleId;
+    public List<RetrievalStep> steps = new ArrayList<>();
+    public double travel;
+    public boolean feasible = true;
+    public int evaluatedPlans;
+
+    public RetrievalPlan(String bundleId) {
+        this.bundleId = bundleId;
+    }
+}
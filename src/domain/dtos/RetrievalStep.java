@@ -0,0 +1,22 @@
+package domain.dtos;
+
+import enums.RetrievalAction;
+import helpers.Point2D;
+
+import java.util.List;
+
+public class RetrievalStep {
+    public RetrievalAction action;
+    public List<String> bundleIds;
+    public Point2D position;
+    public double angle;
+    public double z;
+
+    public RetrievalStep(RetrievalAction action, List<String> bundleIds, Point2D position, double angle, double z) {
+        this.action = action;
+        this.bundleIds = bundleIds;
+        this.position = position;
+        this.angle = angle;
+        this.z = z;
+    }
+}
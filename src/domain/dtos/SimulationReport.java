@@ -0,0 +1,22 @@
+package domain.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Times are simulated seconds, except the wall time
+public class SimulationReport {
+    public double hours;
+    public int arrivals;
+    public int orders;
+    public int putaways;
+    public int retrievals;
+    public int failedJobs;
+    public int pendingJobs;
+    public int rehandledBundles;
+    public double bundlesPerHour;
+    public double liftUtilization;
+    public List<Double> liftUtilizations = new ArrayList<>();
+    public double meanQueueTime;
+    public double maxQueueTime;
+    public double wallSeconds;
+}
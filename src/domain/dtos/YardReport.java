@@ -0,0 +1,47 @@
+package domain.dtos;
+
+import domain.entities.YardSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class YardReport {
+    public String name;
+    public int yardCount;
+    public int bundleCount;
+    public double totalVolume;
+    public double maxHeight;
+    public Map<String, Integer> bundlesPerEssence = new TreeMap<>();
+    public List<String> problems = new ArrayList<>();
+
+    public YardReport(String name) {
+        this.name = name;
+    }
+
+    public YardReport(String name, YardSnapshot snapshot, List<String> problems) {
+        this(name);
+        yardCount = 1;
+        for (BundleDto bundle : snapshot) {
+            bundleCount++;
+            totalVolume += bundle.width * bundle.length * bundle.height;
+            maxHeight = Math.max(maxHeight, bundle.topZ);
+            bundlesPerEssence.merge(bundle.essence, 1, Integer::sum);
+        }
+        this.problems.addAll(problems);
+    }
+
+    public void add(YardReport other) {
+        yardCount += other.yardCount;
+        bundleCount += other.bundleCount;
+        totalVolume += other.totalVolume;
+        maxHeight = Math.max(maxHeight, other.maxHeight);
+        for (Map.Entry<String, Integer> entry : other.bundlesPerEssence.entrySet()) {
+            bundlesPerEssence.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        for (String problem : other.problems) {
+            problems.add(other.name + " : " + problem);
+        }
+    }
+}
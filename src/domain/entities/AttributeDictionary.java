@@ -0,0 +1,30 @@
+package domain.entities;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Attribute values repeated across many bundles, kept once and referred to by a code; -1 stands for no value
+class AttributeDictionary {
+    static final AttributeDictionary ESSENCES = new AttributeDictionary();
+    static final AttributeDictionary PLANK_SIZES = new AttributeDictionary();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[8];
+
+    public synchronized int encode(String value) {
+        if (value == null) return -1;
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = codes.size();
+            String[] grown = code < values.length ? values : Arrays.copyOf(values, values.length * 2);
+            grown[code] = value;
+            values = grown;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+}
@@ -2,10 +2,13 @@ package domain.entities;
 
 import helpers.ColorHelper;
 import helpers.ConfigHelper;
-import helpers.MathHelper;
+import helpers.FixedPoint;
 import helpers.Point2D;
-import javafx.scene.paint.Color;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -14,18 +17,57 @@ import java.util.UUID;
 public class Bundle extends Drawable3D implements Serializable
 {
     private static final long serialVersionUID = 15641321L;
-    private String id;
-    private String color;
+    // The id and color are saved as numbers, older files have them as strings
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", String.class),
+        new ObjectStreamField("color", String.class),
+        new ObjectStreamField("idMostBits", long.class),
+        new ObjectStreamField("idLeastBits", long.class),
+        new ObjectStreamField("rgb", int.class),
+        new ObjectStreamField("date", LocalDate.class),
+        new ObjectStreamField("time", LocalTime.class),
+        new ObjectStreamField("essence", String.class),
+        new ObjectStreamField("plankSize", String.class),
+        new ObjectStreamField("barcode", String.class)
+    };
+    private UUID id;
+    private int color;
     private LocalDate date;
     private LocalTime time;
-    private String essence;
-    private String plankSize;
+    private int essence = -1;
+    private int plankSize = -1;
     private String barcode;
+    // Centimeters, and hundredths of a degree for the angle; Drawable and Drawable3D save them as doubles
+    private transient int x;
+    private transient int y;
+    private transient int angle;
+    private transient int width;
+    private transient int length;
+    private transient int height;
+    private transient int z;
+    private transient BundleZOrder zOrder;
+    private transient ClearanceGrid clearanceGrid;
+    private transient BundleStore store;
+    private transient int handle = -1;
+    private transient Lift carrier;
+    private transient double carrierX;
+    private transient double carrierY;
+    private transient double carrierAngle;
+    private transient Point2D carriedPosition;
+    private transient long carriedVersion;
 
     public Bundle(Point2D position) {
+        this(
+            position,
+            UUID.randomUUID(),
+            ColorHelper.nextHueRandomColor(ConfigHelper.bundleSaturation, ConfigHelper.bundleBrightness)
+        );
+    }
+
+    public Bundle(Point2D position, UUID id, int color) {
         super(position);
-        initId();
-        initColor();
+        this.id = id;
+        this.color = color;
         setWidth(ConfigHelper.bundleWidth);
         setLength(ConfigHelper.bundleLength);
         setHeight(ConfigHelper.bundleHeight);
@@ -37,85 +79,248 @@ public class Bundle extends Drawable3D implements Serializable
         setBarcode(ConfigHelper.bundleBarcode);
     }
 
-    public String getId() { return id; }
-
-    private void initId() {
-        id = UUID.randomUUID().toString();
+    // Unlike the other constructors, leaves the ConfigHelper defaults as they are
+    Bundle(Bundle other) {
+        super(other);
+        x = other.x;
+        y = other.y;
+        angle = other.angle;
+        width = other.width;
+        length = other.length;
+        height = other.height;
+        z = other.z;
+        // A carried bundle is copied where it really is, the lift of the copy attaches it again
+        if (other.carrier != null) {
+            Point2D position = other.getPosition();
+            x = FixedPoint.toFixed(position.getX());
+            y = FixedPoint.toFixed(position.getY());
+            angle = FixedPoint.toFixedAngle(other.getAngle());
+        }
+        id = other.id;
+        color = other.color;
+        date = other.date;
+        time = other.time;
+        essence = other.essence;
+        plankSize = other.plankSize;
+        barcode = other.barcode;
     }
 
-    public String getColor() { return color; }
+    public String getId() { return id.toString(); }
 
-    private void initColor() {
-        Color color = ColorHelper.nextHueRandomColor(ConfigHelper.bundleSaturation, ConfigHelper.bundleBrightness);
-        this.color = ColorHelper.toWeb(color);
-    }
+    public UUID getUuid() { return id; }
+
+    public int getColor() { return color; }
+
+    @Override
+    public double getWidth() { return FixedPoint.toDouble(width); }
 
     @Override
     public void setWidth(double width) {
         if (width > 0) {
-            super.setWidth(MathHelper.round(width, 2));
-            ConfigHelper.bundleWidth = this.width;
+            this.width = FixedPoint.toFixed(width);
+            touch();
+            ConfigHelper.bundleWidth = getWidth();
         }
     }
 
+    @Override
+    public double getLength() { return FixedPoint.toDouble(length); }
+
     @Override
     public void setLength(double length) {
         if (length > 0) {
-            super.setLength(MathHelper.round(length, 2));
-            ConfigHelper.bundleLength = this.length;
+            this.length = FixedPoint.toFixed(length);
+            touch();
+            ConfigHelper.bundleLength = getLength();
         }
     }
 
+    @Override
+    public double getHeight() { return FixedPoint.toDouble(height); }
+
     @Override
     public void setHeight(double height)
     {
         if (height > 0) {
-            this.height = MathHelper.round(height, 2);
-            ConfigHelper.bundleHeight = this.height;
+            this.height = FixedPoint.toFixed(height);
+            ConfigHelper.bundleHeight = getHeight();
+            touch();
         }
     }
 
+    @Override
+    public double getZ() { return FixedPoint.toDouble(z); }
+
+    @Override
+    public double getTopZ() { return FixedPoint.toDouble(z + height); }
+
+    // Exact heights in centimeters, for the stacking comparisons
+    int getFixedZ() { return z; }
+
+    int getFixedTopZ() { return z + height; }
+
     @Override
     public void setAngle(double angle) {
-        angle %= 360;
-        if (angle < 0) angle += 360;
-        super.setAngle(angle);
-        ConfigHelper.bundleAngle = this.angle;
+        setAngleOnLift(angle);
+        ConfigHelper.bundleAngle = getAngle();
+    }
+
+    @Override
+    public void setZ(double z) {
+        BundleZOrder zOrder = this.zOrder;
+        if (zOrder != null) zOrder.detach(this);
+        this.z = FixedPoint.toFixed(z);
+        touch();
+        if (zOrder != null) zOrder.attach(this);
+    }
+
+    void setZOrder(BundleZOrder zOrder) {
+        this.zOrder = zOrder;
+    }
+
+    void setClearanceGrid(ClearanceGrid clearanceGrid) {
+        this.clearanceGrid = clearanceGrid;
+    }
+
+    void setStore(BundleStore store, int handle) {
+        this.store = store;
+        this.handle = handle;
+    }
+
+    BundleStore getStore() {
+        return store;
+    }
+
+    int getHandle() {
+        return handle;
+    }
+
+    // While carried, the bundle is stored in the lift frame and follows every lift move without being updated
+    void attachTo(Lift lift) {
+        Point2D position = getPosition();
+        double angle = getAngle();
+        carrier = lift;
+        setCarrierFrame(position, angle);
+        if (store != null) store.update(handle, this);
+    }
+
+    // The world coordinates are written back once, when the load is dropped
+    void detachFromLift() {
+        Point2D position = getPosition();
+        double angle = getAngle();
+        carrier = null;
+        carriedPosition = null;
+        setPosition(position);
+        setAngleOnLift(angle);
+    }
+
+    public boolean isCarried() {
+        return carrier != null;
+    }
+
+    private void setCarrierFrame(Point2D position, double angle) {
+        double radians = Math.toRadians(carrier.getAngle());
+        double dx = position.getX() - carrier.getPosition().getX();
+        double dy = position.getY() - carrier.getPosition().getY();
+        carrierX = dx * Math.cos(radians) + dy * Math.sin(radians);
+        carrierY = dy * Math.cos(radians) - dx * Math.sin(radians);
+        carrierAngle = angle - carrier.getAngle();
+        carriedPosition = null;
+    }
+
+    @Override
+    public Point2D getPosition() {
+        if (carrier == null) return new Point2D(FixedPoint.toDouble(x), FixedPoint.toDouble(y));
+        if (carriedPosition == null || carriedVersion != carrier.getVersion()) {
+            double radians = Math.toRadians(carrier.getAngle());
+            Point2D liftPosition = carrier.getPosition();
+            carriedPosition = new Point2D(
+                liftPosition.getX() + carrierX * Math.cos(radians) - carrierY * Math.sin(radians),
+                liftPosition.getY() + carrierX * Math.sin(radians) + carrierY * Math.cos(radians)
+            );
+            carriedVersion = carrier.getVersion();
+        }
+        return carriedPosition;
+    }
+
+    @Override
+    public double getAngle() {
+        if (carrier == null) return FixedPoint.toDouble(angle);
+        double angle = (carrier.getAngle() + carrierAngle) % 360;
+        return angle < 0 ? angle + 360 : angle;
+    }
+
+    @Override
+    public long getVersion() {
+        if (carrier == null) return super.getVersion();
+        return Math.max(super.getVersion(), carrier.getVersion());
+    }
+
+    @Override
+    protected void touch() {
+        super.touch();
+        if (clearanceGrid != null) clearanceGrid.invalidate(this);
+        if (store != null) store.update(handle, this);
     }
 
     public void setAngleOnLift(double angle){
-        angle %= 360;
-        if (angle < 0) angle += 360;
-        super.setAngle(angle);
+        if (carrier != null) {
+            angle %= 360;
+            if (angle < 0) angle += 360;
+            setCarrierFrame(getPosition(), angle);
+        } else {
+            this.angle = FixedPoint.toFixedAngle(angle);
+        }
+        touch();
     }
 
     @Override
     public void setPosition(Point2D position) {
-        super.setPosition(new Point2D(
-                MathHelper.round(position.getX(), 2),
-                MathHelper.round(position.getY(), 2)
-        ));
+        if (carrier != null) {
+            setCarrierFrame(new Point2D(FixedPoint.round(position.getX()), FixedPoint.round(position.getY())), getAngle());
+        } else {
+            x = FixedPoint.toFixed(position.getX());
+            y = FixedPoint.toFixed(position.getY());
+        }
+        touch();
+    }
+
+    @Override
+    protected void restore(Point2D position, double angle, double width, double length) {
+        x = FixedPoint.toFixed(position.getX());
+        y = FixedPoint.toFixed(position.getY());
+        this.angle = FixedPoint.toFixedAngle(angle);
+        this.width = FixedPoint.toFixed(width);
+        this.length = FixedPoint.toFixed(length);
+    }
+
+    @Override
+    protected void restore(double z, double height) {
+        this.z = FixedPoint.toFixed(z);
+        this.height = FixedPoint.toFixed(height);
     }
 
     public String getEssence()
     {
-        return essence;
+        return AttributeDictionary.ESSENCES.decode(essence);
     }
 
     public void setEssence(String essence)
     {
         if (!essence.isEmpty()) {
-            this.essence = essence;
-            ConfigHelper.bundleEssence = this.essence;
+            this.essence = AttributeDictionary.ESSENCES.encode(essence);
+            ConfigHelper.bundleEssence = getEssence();
+            touch();
         }
     }
 
-    public String getPlankSize() { return plankSize; }
+    public String getPlankSize() { return AttributeDictionary.PLANK_SIZES.decode(plankSize); }
 
     public void setPlanckSize(String plankSize) {
         if (plankSize.matches("^[1-9]+[0-9]*x[1-9]+[0-9]*$")) {
-            this.plankSize = plankSize;
-            ConfigHelper.bundlePlankSize = this.plankSize;
+            this.plankSize = AttributeDictionary.PLANK_SIZES.encode(plankSize);
+            ConfigHelper.bundlePlankSize = getPlankSize();
+            touch();
         }
     }
 
@@ -124,6 +329,7 @@ public class Bundle extends Drawable3D implements Serializable
     public void setDate(LocalDate date) {
         this.date = date;
         ConfigHelper.bundleDate = this.date;
+        touch();
     }
 
     public LocalTime getTime()
@@ -134,6 +340,7 @@ public class Bundle extends Drawable3D implements Serializable
     public void setTime(LocalTime time) {
         this.time = time;
         ConfigHelper.bundleTime = this.time;
+        touch();
     }
 
     public String getBarcode() { return barcode; }
@@ -142,6 +349,52 @@ public class Bundle extends Drawable3D implements Serializable
         if (!barcode.isEmpty()) {
             this.barcode = barcode;
             ConfigHelper.bundleBarcode = this.barcode;
+            touch();
         }
     }
+
+    // Ids compare like their text, so that bundles keep the order they had when ids were strings
+    static int compareIds(Bundle bundle, Bundle other) {
+        int most = Long.compareUnsigned(bundle.id.getMostSignificantBits(), other.id.getMostSignificantBits());
+        if (most != 0) return most;
+        return Long.compareUnsigned(bundle.id.getLeastSignificantBits(), other.id.getLeastSignificantBits());
+    }
+
+    // Returns null when the text is not a bundle id, like a barcode given instead
+    public static UUID parseId(String id) {
+        if (id == null || id.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equalsIgnoreCase(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        String legacyId = (String) fields.get("id", null);
+        String legacyColor = (String) fields.get("color", null);
+        id = legacyId != null ? UUID.fromString(legacyId) : new UUID(fields.get("idMostBits", 0L), fields.get("idLeastBits", 0L));
+        color = legacyColor != null ? ColorHelper.webToRgb(legacyColor) : fields.get("rgb", 0);
+        date = (LocalDate) fields.get("date", null);
+        time = (LocalTime) fields.get("time", null);
+        essence = AttributeDictionary.ESSENCES.encode((String) fields.get("essence", null));
+        plankSize = AttributeDictionary.PLANK_SIZES.encode((String) fields.get("plankSize", null));
+        barcode = (String) fields.get("barcode", null);
+    }
+
+    // Essences and plank sizes are the dictionary strings, so the stream writes each of them once and refers back to it
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("idMostBits", id.getMostSignificantBits());
+        fields.put("idLeastBits", id.getLeastSignificantBits());
+        fields.put("rgb", color);
+        fields.put("date", date);
+        fields.put("time", time);
+        fields.put("essence", getEssence());
+        fields.put("plankSize", getPlankSize());
+        fields.put("barcode", barcode);
+        out.writeFields();
+    }
 }
@@ -0,0 +1,131 @@
+package domain.entities;
+
+import helpers.Point2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Bundle geometry in primitive columns indexed by a dense handle, so that the scans over the whole yard stream through arrays
+class BundleStore {
+    // pointIsInsideRectangle accepts points whose triangle areas overshoot the rectangle area by less than this
+    private static final double INSIDE_TOLERANCE = 0.05;
+    private static final int INITIAL_CAPACITY = 64;
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] width = new double[INITIAL_CAPACITY];
+    private double[] length = new double[INITIAL_CAPACITY];
+    private double[] z = new double[INITIAL_CAPACITY];
+    private double[] radius = new double[INITIAL_CAPACITY];
+    private boolean[] carried = new boolean[INITIAL_CAPACITY];
+    private Bundle[] bundles = new Bundle[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public void add(Bundle bundle) {
+        if (size == bundles.length) grow();
+        int handle = size++;
+        bundles[handle] = bundle;
+        bundle.setStore(this, handle);
+        update(handle, bundle);
+    }
+
+    // The last bundle takes the freed handle, so that the columns stay without holes
+    public void remove(Bundle bundle) {
+        int handle = bundle.getHandle();
+        if (bundle.getStore() != this || bundles[handle] != bundle) return;
+        int last = --size;
+        if (handle != last) {
+            x[handle] = x[last];
+            y[handle] = y[last];
+            width[handle] = width[last];
+            length[handle] = length[last];
+            z[handle] = z[last];
+            radius[handle] = radius[last];
+            carried[handle] = carried[last];
+            bundles[handle] = bundles[last];
+            bundles[handle].setStore(this, handle);
+        }
+        bundles[last] = null;
+        bundle.setStore(null, -1);
+    }
+
+    // Called by the bundle whenever it changes; carried bundles follow their lift, so their position is read through the bundle
+    void update(int handle, Bundle bundle) {
+        Point2D position = bundle.getPosition();
+        x[handle] = position.getX();
+        y[handle] = position.getY();
+        width[handle] = bundle.getWidth();
+        length[handle] = bundle.getLength();
+        z[handle] = bundle.getZ();
+        radius[handle] = Math.hypot(width[handle], length[handle]) / 2;
+        carried[handle] = bundle.isCarried();
+    }
+
+    // Bundles whose footprint may touch the given one, to be confirmed by the exact rectangle test
+    public List<Bundle> getNearBundles(double centerX, double centerY, double width, double length) {
+        List<Bundle> near = new ArrayList<>();
+        double reach = Math.hypot(width, length) / 2;
+        double minSide = Math.min(width, length);
+        for (int handle = 0; handle < size; handle++) {
+            double margin = INSIDE_TOLERANCE / Math.min(minSide, Math.min(this.width[handle], this.length[handle]));
+            double distance = reach + radius[handle] + margin;
+            double dx = getX(handle) - centerX;
+            double dy = getY(handle) - centerY;
+            if (dx * dx + dy * dy <= distance * distance) {
+                near.add(bundles[handle]);
+            }
+        }
+        return near;
+    }
+
+    // Bundles whose footprint may contain the point, to be confirmed by the exact point test
+    public List<Bundle> getBundlesAround(double pointX, double pointY) {
+        List<Bundle> around = new ArrayList<>();
+        for (int handle = 0; handle < size; handle++) {
+            double distance = radius[handle] + INSIDE_TOLERANCE / Math.min(width[handle], length[handle]);
+            double dx = getX(handle) - pointX;
+            double dy = getY(handle) - pointY;
+            if (dx * dx + dy * dy <= distance * distance) {
+                around.add(bundles[handle]);
+            }
+        }
+        return around;
+    }
+
+    // Bundles below the given height whose footprint may enter the corridor swept by a lift going along the unit heading
+    public List<Bundle> getBundlesAlong(double centerX, double centerY, double liftRadius, double headingX, double headingY, double belowZ) {
+        List<Bundle> along = new ArrayList<>();
+        for (int handle = 0; handle < size; handle++) {
+            if (z[handle] >= belowZ) continue;
+            double reach = liftRadius + radius[handle];
+            double dx = getX(handle) - centerX;
+            double dy = getY(handle) - centerY;
+            double alongHeading = dx * headingX + dy * headingY;
+            double across = Math.abs(dx * headingY - dy * headingX);
+            if (alongHeading >= -reach && across <= reach) {
+                along.add(bundles[handle]);
+            }
+        }
+        return along;
+    }
+
+    private double getX(int handle) {
+        return carried[handle] ? bundles[handle].getPosition().getX() : x[handle];
+    }
+
+    private double getY(int handle) {
+        return carried[handle] ? bundles[handle].getPosition().getY() : y[handle];
+    }
+
+    private void grow() {
+        int capacity = bundles.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        length = Arrays.copyOf(length, capacity);
+        z = Arrays.copyOf(z, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        carried = Arrays.copyOf(carried, capacity);
+        bundles = Arrays.copyOf(bundles, capacity);
+    }
+}
@@ -0,0 +1,40 @@
+package domain.entities;
+
+import java.util.*;
+
+class BundleZOrder implements Iterable<Bundle> {
+    static final Comparator<Bundle> ORDER = Comparator.comparingDouble(Bundle::getZ).thenComparing(Bundle::compareIds);
+    private final NavigableSet<Bundle> bundles = new TreeSet<>(ORDER);
+
+    public void add(Bundle bundle) {
+        bundles.add(bundle);
+        bundle.setZOrder(this);
+    }
+
+    public void remove(Bundle bundle) {
+        bundles.remove(bundle);
+        bundle.setZOrder(null);
+    }
+
+    // A bundle has to leave the set while its z changes, otherwise the tree can't find it anymore
+    void detach(Bundle bundle) {
+        bundles.remove(bundle);
+    }
+
+    void attach(Bundle bundle) {
+        bundles.add(bundle);
+    }
+
+    public List<Bundle> toList() {
+        return new ArrayList<>(bundles);
+    }
+
+    public int size() {
+        return bundles.size();
+    }
+
+    @Override
+    public Iterator<Bundle> iterator() {
+        return Collections.unmodifiableSet(bundles).iterator();
+    }
+}
@@ -0,0 +1,143 @@
+package domain.entities;
+
+import helpers.CenteredRectangle;
+import helpers.Point2D;
+
+import java.util.*;
+
+// Bundle footprints rasterized on a coarse grid, so that lift checks only look at the bundles in the cells it covers
+class ClearanceGrid {
+    private static final double MARGIN = 0.25;
+    private final double cellSize;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Bundle, List<Long>> bundleCells = new HashMap<>();
+    private final Set<Bundle> dirtyBundles = new HashSet<>();
+    private boolean built = false;
+
+    ClearanceGrid(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    private static class Cell {
+        private final List<Bundle> bundles = new ArrayList<>();
+        // Lowest bundle bottom, so that a lift lower than it skips the whole cell
+        private double minZ = Double.POSITIVE_INFINITY;
+
+        private void update() {
+            minZ = Double.POSITIVE_INFINITY;
+            for (Bundle bundle : bundles) {
+                minZ = Math.min(minZ, bundle.getZ());
+            }
+        }
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public void build(Iterable<Bundle> bundles) {
+        clear();
+        built = true;
+        for (Bundle bundle : bundles) {
+            add(bundle);
+        }
+    }
+
+    public void clear() {
+        for (Bundle bundle : bundleCells.keySet()) {
+            bundle.setClearanceGrid(null);
+        }
+        cells.clear();
+        bundleCells.clear();
+        dirtyBundles.clear();
+        built = false;
+    }
+
+    public void add(Bundle bundle) {
+        if (!built) return;
+        bundle.setClearanceGrid(this);
+        rasterize(bundle);
+    }
+
+    public void remove(Bundle bundle) {
+        if (!built) return;
+        bundle.setClearanceGrid(null);
+        dirtyBundles.remove(bundle);
+        unrasterize(bundle);
+    }
+
+    // Called whenever a bundle changes, the bundle is rasterized again on the next sync
+    void invalidate(Bundle bundle) {
+        dirtyBundles.add(bundle);
+    }
+
+    public void sync() {
+        if (dirtyBundles.isEmpty()) return;
+        for (Bundle bundle : dirtyBundles) {
+            unrasterize(bundle);
+            rasterize(bundle);
+        }
+        dirtyBundles.clear();
+    }
+
+    // Bundles below the given height whose footprint may touch the rectangle
+    public List<Bundle> getBundles(CenteredRectangle rectangle, double belowZ) {
+        Set<Bundle> found = new LinkedHashSet<>();
+        double[] bounds = getBounds(rectangle);
+        for (long x = toCell(bounds[0]); x <= toCell(bounds[2]); x++) {
+            for (long y = toCell(bounds[1]); y <= toCell(bounds[3]); y++) {
+                Cell cell = cells.get(key(x, y));
+                if (cell == null || cell.minZ >= belowZ) continue;
+                for (Bundle bundle : cell.bundles) {
+                    if (bundle.getZ() < belowZ) found.add(bundle);
+                }
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    private void rasterize(Bundle bundle) {
+        List<Long> keys = new ArrayList<>();
+        double[] bounds = getBounds(new CenteredRectangle(bundle));
+        for (long x = toCell(bounds[0]); x <= toCell(bounds[2]); x++) {
+            for (long y = toCell(bounds[1]); y <= toCell(bounds[3]); y++) {
+                long key = key(x, y);
+                Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+                cell.bundles.add(bundle);
+                cell.minZ = Math.min(cell.minZ, bundle.getZ());
+                keys.add(key);
+            }
+        }
+        bundleCells.put(bundle, keys);
+    }
+
+    private void unrasterize(Bundle bundle) {
+        List<Long> keys = bundleCells.remove(bundle);
+        if (keys == null) return;
+        for (long key : keys) {
+            Cell cell = cells.get(key);
+            cell.bundles.remove(bundle);
+            if (cell.bundles.isEmpty()) cells.remove(key);
+            else cell.update();
+        }
+    }
+
+    private double[] getBounds(CenteredRectangle rectangle) {
+        double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Point2D point : rectangle.getPoints()) {
+            bounds[0] = Math.min(bounds[0], point.getX() - MARGIN);
+            bounds[1] = Math.min(bounds[1], point.getY() - MARGIN);
+            bounds[2] = Math.max(bounds[2], point.getX() + MARGIN);
+            bounds[3] = Math.max(bounds[3], point.getY() + MARGIN);
+        }
+        return bounds;
+    }
+
+    private long toCell(double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) ^ (y & 0xffffffffL);
+    }
+}
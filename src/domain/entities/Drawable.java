@@ -1,17 +1,27 @@
 package domain.entities;
 
 import helpers.Point2D;
-import javafx.scene.shape.Rectangle;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 
+// The subclasses keep the pose and size in their own form, files still hold them here as doubles
 public abstract class Drawable implements Serializable
 {
     private static final long serialVersionUID = 8150050354543139242L;
-    protected Point2D position;
-    protected double angle;
-    protected double width;
-    protected double length;
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("position", Point2D.class),
+        new ObjectStreamField("angle", double.class),
+        new ObjectStreamField("width", double.class),
+        new ObjectStreamField("length", double.class)
+    };
+    private transient long version;
+
+    private static final AtomicLong versionCounter = new AtomicLong();
 
     public Drawable(Point2D position) {
         setPosition(position);
@@ -19,39 +29,49 @@ public abstract class Drawable implements Serializable
 
     public Drawable() {}
 
-    public double getLength()
-    {
-        return length;
-    }
+    public abstract double getLength();
 
-    public void setLength(double length)
-    {
-        this.length = length;
-        calculateBoundaries();
-    }
+    public abstract void setLength(double length);
 
-    public double getWidth()
-    {
-        return width;
-    }
+    public abstract double getWidth();
 
-    public void setWidth(double width)
-    {
-        this.width = width;
-        calculateBoundaries();
-    }
+    public abstract void setWidth(double width);
 
-    public Point2D getPosition() { return position; }
+    public abstract Point2D getPosition();
 
-    public void setPosition(Point2D position) {
-        this.position = position;
-        calculateBoundaries();
-    }
+    public abstract void setPosition(Point2D position);
 
-    public double getAngle() { return angle; }
+    public abstract double getAngle();
 
-    public void setAngle(double angle) { this.angle = angle; }
+    public abstract void setAngle(double angle);
+
+    // Sets the saved pose and size as they are, without the checks and side effects of the setters
+    protected abstract void restore(Point2D position, double angle, double width, double length);
+
+    public long getVersion() { return version; }
+
+    protected void touch() {
+        version = versionCounter.incrementAndGet();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        restore(
+            (Point2D) fields.get("position", null),
+            fields.get("angle", 0.0),
+            fields.get("width", 0.0),
+            fields.get("length", 0.0)
+        );
+        touch();
+    }
 
-    private void calculateBoundaries() {
+    // Goes through the getters so that subclasses computing their position, like carried bundles, save where they really are
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("position", getPosition());
+        fields.put("angle", getAngle());
+        fields.put("width", getWidth());
+        fields.put("length", getLength());
+        out.writeFields();
     }
 }
@@ -2,13 +2,19 @@ package domain.entities;
 
 import helpers.Point2D;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 
 public abstract class Drawable3D extends Drawable implements Serializable
 {
     private static final long serialVersionUID = 4468277169307936906L;
-    protected double z;
-    protected double height;
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("z", double.class),
+        new ObjectStreamField("height", double.class)
+    };
 
     public Drawable3D(Point2D position) {
         super(position);
@@ -22,13 +28,32 @@ public abstract class Drawable3D extends Drawable implements Serializable
         setHeight(0.0);
     }
 
-    public double getZ() { return z; }
+    // The copy constructors of the subclasses copy the fields themselves
+    protected Drawable3D(Drawable3D other) {
+        touch();
+    }
+
+    public abstract double getZ();
+
+    public abstract void setZ(double z);
+
+    public abstract double getHeight();
 
-    public void setZ(double z) { this.z = z; }
+    public abstract void setHeight(double height);
 
-    public double getHeight() { return height; }
+    protected abstract void restore(double z, double height);
 
-    public void setHeight(double height) { this.height = height; }
+    public double getTopZ() { return getZ() + getHeight(); }
 
-    public double getTopZ() { return z + height; }
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        restore(fields.get("z", 0.0), fields.get("height", 0.0));
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("z", getZ());
+        fields.put("height", getHeight());
+        out.writeFields();
+    }
 }
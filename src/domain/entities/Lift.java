@@ -1,8 +1,8 @@
 package domain.entities;
 
 import helpers.ConfigHelper;
+import helpers.FixedPoint;
 import helpers.GeomHelper;
-import helpers.MathHelper;
 import helpers.Point2D;
 
 import java.io.Serializable;
@@ -12,6 +12,13 @@ import java.util.List;
 public class Lift extends Drawable3D implements Serializable {
 
     private static final long serialVersionUID = 15641321L;
+    // Saved by Drawable and Drawable3D
+    protected transient Point2D position;
+    protected transient double angle;
+    protected transient double width;
+    protected transient double length;
+    protected transient double z;
+    protected transient double height;
     private double armsHeight;
     private double armsWidth;
     private double armsLength;
@@ -33,6 +40,83 @@ public class Lift extends Drawable3D implements Serializable {
         repositionArms();
     }
 
+    // The load is left empty, the yard copy hands the lift its copied bundles
+    Lift(Lift other) {
+        super(other);
+        position = new Point2D(other.position.getX(), other.position.getY());
+        angle = other.angle;
+        width = other.width;
+        length = other.length;
+        z = other.z;
+        height = other.height;
+        bundlesOnLift = new ArrayList<>();
+        armsHeight = other.armsHeight;
+        armsWidth = other.armsWidth;
+        armsLength = other.armsLength;
+        armsPosition = new Point2D(other.armsPosition.getX(), other.armsPosition.getY());
+        scale = other.scale;
+    }
+
+    @Override
+    public double getLength() {
+        return length;
+    }
+
+    @Override
+    public void setLength(double length) {
+        this.length = length;
+        touch();
+    }
+
+    @Override
+    public double getWidth() {
+        return width;
+    }
+
+    @Override
+    public void setWidth(double width) {
+        this.width = width;
+        touch();
+    }
+
+    @Override
+    public Point2D getPosition() { return position; }
+
+    @Override
+    public double getAngle() { return angle; }
+
+    @Override
+    public double getZ() { return z; }
+
+    @Override
+    public void setZ(double z) {
+        this.z = z;
+        touch();
+    }
+
+    @Override
+    public double getHeight() { return height; }
+
+    @Override
+    public void setHeight(double height) {
+        this.height = height;
+        touch();
+    }
+
+    @Override
+    protected void restore(Point2D position, double angle, double width, double length) {
+        this.position = position;
+        this.angle = angle;
+        this.width = width;
+        this.length = length;
+    }
+
+    @Override
+    protected void restore(double z, double height) {
+        this.z = z;
+        this.height = height;
+    }
+
     public Point2D getArmsPosition() {
         return armsPosition;
     }
@@ -95,18 +179,22 @@ public class Lift extends Drawable3D implements Serializable {
     public void setAngle(double angle) {
         angle %= 360;
         if (angle < 0) angle += 360;
-        super.setAngle(angle);
+        this.angle = angle;
+        touch();
         ConfigHelper.liftAngle = this.angle;
         repositionArms();
     }
 
     public void turnRight() {
-        setAngle(angle - ConfigHelper.liftAngleIncrement);
-        repositionArms();
+        turn(-ConfigHelper.liftAngleIncrement);
     }
 
     public void turnLeft() {
-        setAngle(angle + ConfigHelper.liftAngleIncrement);
+        turn(ConfigHelper.liftAngleIncrement);
+    }
+
+    public void turn(double angle) {
+        setAngle(this.angle + angle);
         repositionArms();
     }
 
@@ -128,13 +216,22 @@ public class Lift extends Drawable3D implements Serializable {
 
     @Override
     public void setPosition(Point2D position) {
-        super.setPosition(new Point2D(MathHelper.round(position.getX(), 2), MathHelper.round(position.getY(), 2)));
+        this.position = new Point2D(FixedPoint.round(position.getX()), FixedPoint.round(position.getY()));
+        touch();
         repositionArms();
     }
 
-    private void move(boolean moveForward) {
+    public void moveForward(int steps) {
+        setPosition(position.add(getPositionIncrement().multiply(steps)));
+    }
+
+    public Point2D getPositionIncrement() {
         Point2D increment = new Point2D(ConfigHelper.liftPositionIncrement * getScale());
-        Point2D rotatedIncrement = GeomHelper.getRotatedVector(increment, angle);
+        return GeomHelper.getRotatedVector(increment, angle);
+    }
+
+    private void move(boolean moveForward) {
+        Point2D rotatedIncrement = getPositionIncrement();
         if (moveForward) setPosition(position.add(rotatedIncrement));
         else setPosition(position.substract(rotatedIncrement));
     }
@@ -149,6 +246,13 @@ public class Lift extends Drawable3D implements Serializable {
     public void setBundlesOnLift(List<Bundle> bundlesOnLift) {
         if (this.bundlesOnLift.isEmpty()) {
             this.bundlesOnLift = bundlesOnLift;
+            attachBundles();
+        }
+    }
+
+    void attachBundles() {
+        for (Bundle bundle : bundlesOnLift) {
+            bundle.attachTo(this);
         }
     }
 
@@ -157,6 +261,9 @@ public class Lift extends Drawable3D implements Serializable {
     }
 
     public void clearBundles() {
+        for (Bundle bundle : bundlesOnLift) {
+            bundle.detachFromLift();
+        }
         bundlesOnLift.clear();
     }
 }
@@ -0,0 +1,119 @@
+package domain.entities;
+
+import helpers.CenteredRectangle;
+import helpers.Point2D;
+
+import java.util.*;
+
+// Maximal free rectangles around a target, computed in the frame of the footprint so that it stays axis aligned
+class PlacementSearch {
+    private static final double GAP = 0.1;
+    private final double width;
+    private final double length;
+    private final double cos;
+    private final double sin;
+    private final List<double[]> obstacles = new ArrayList<>();
+
+    PlacementSearch(double width, double length, double angle) {
+        this.width = width;
+        this.length = length;
+        this.cos = Math.cos(Math.toRadians(angle));
+        this.sin = Math.sin(Math.toRadians(angle));
+    }
+
+    public void addObstacle(CenteredRectangle rectangle) {
+        double[] bounds = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (Point2D point : rectangle.getPoints()) {
+            double x = toLocalX(point.getX(), point.getY());
+            double y = toLocalY(point.getX(), point.getY());
+            bounds[0] = Math.min(bounds[0], x - GAP);
+            bounds[1] = Math.min(bounds[1], y - GAP);
+            bounds[2] = Math.max(bounds[2], x + GAP);
+            bounds[3] = Math.max(bounds[3], y + GAP);
+        }
+        obstacles.add(bounds);
+    }
+
+    // Nearest center position in every free rectangle of the window that fits the footprint, nearest first
+    public List<Point2D> search(Point2D target, double halfSize) {
+        double targetX = toLocalX(target.getX(), target.getY());
+        double targetY = toLocalY(target.getX(), target.getY());
+        List<double[]> freeRectangles = new ArrayList<>();
+        freeRectangles.add(new double[] {targetX - halfSize, targetY - halfSize, targetX + halfSize, targetY + halfSize});
+        for (double[] obstacle : obstacles) {
+            freeRectangles = split(freeRectangles, obstacle);
+        }
+        List<double[]> candidates = new ArrayList<>();
+        for (double[] free : freeRectangles) {
+            double x = clamp(targetX, free[0] + width / 2, free[2] - width / 2);
+            double y = clamp(targetY, free[1] + length / 2, free[3] - length / 2);
+            candidates.add(new double[] {x, y, Math.hypot(x - targetX, y - targetY)});
+        }
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate[2]));
+        List<Point2D> positions = new ArrayList<>(candidates.size());
+        for (double[] candidate : candidates) {
+            positions.add(new Point2D(
+                candidate[0] * cos - candidate[1] * sin,
+                candidate[0] * sin + candidate[1] * cos
+            ));
+        }
+        return positions;
+    }
+
+    // Pieces too small for the footprint are dropped, splitting would only make them smaller
+    private List<double[]> split(List<double[]> freeRectangles, double[] obstacle) {
+        List<double[]> result = new ArrayList<>();
+        List<double[]> pieces = new ArrayList<>();
+        for (double[] free : freeRectangles) {
+            if (obstacle[0] >= free[2] || obstacle[2] <= free[0] || obstacle[1] >= free[3] || obstacle[3] <= free[1]) {
+                result.add(free);
+                continue;
+            }
+            if (obstacle[0] > free[0]) addPiece(pieces, free[0], free[1], obstacle[0], free[3]);
+            if (obstacle[2] < free[2]) addPiece(pieces, obstacle[2], free[1], free[2], free[3]);
+            if (obstacle[1] > free[1]) addPiece(pieces, free[0], free[1], free[2], obstacle[1]);
+            if (obstacle[3] < free[3]) addPiece(pieces, free[0], obstacle[3], free[2], free[3]);
+        }
+        return prune(result, pieces);
+    }
+
+    private void addPiece(List<double[]> pieces, double minX, double minY, double maxX, double maxY) {
+        if (maxX - minX >= width && maxY - minY >= length) {
+            pieces.add(new double[] {minX, minY, maxX, maxY});
+        }
+    }
+
+    // The untouched rectangles are still maximal, only the new pieces can be contained in another rectangle
+    private static List<double[]> prune(List<double[]> untouched, List<double[]> pieces) {
+        List<double[]> maximal = new ArrayList<>(untouched);
+        for (int i = 0; i < pieces.size(); i++) {
+            double[] piece = pieces.get(i);
+            boolean contained = false;
+            for (int j = 0; j < untouched.size() && !contained; j++) {
+                contained = contains(untouched.get(j), piece);
+            }
+            for (int j = 0; j < pieces.size() && !contained; j++) {
+                double[] other = pieces.get(j);
+                contained = i != j && contains(other, piece) && (!contains(piece, other) || j < i);
+            }
+            if (!contained) maximal.add(piece);
+        }
+        return maximal;
+    }
+
+    private static boolean contains(double[] outer, double[] inner) {
+        return outer[0] <= inner[0] && outer[1] <= inner[1] && outer[2] >= inner[2] && outer[3] >= inner[3];
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private double toLocalX(double x, double y) {
+        return x * cos + y * sin;
+    }
+
+    private double toLocalY(double x, double y) {
+        return y * cos - x * sin;
+    }
+}
@@ -1,22 +1,257 @@
 package domain.entities;
 
 import domain.dtos.BundleDto;
+import domain.dtos.BundleMove;
 import domain.dtos.LiftDto;
-import enums.Comparison;
+import domain.events.YardChange;
+import domain.events.YardChangeSet;
+import domain.profiling.CollisionQueryEvent;
+import domain.profiling.YardMutationEvent;
+import enums.LiftMotion;
+import enums.YardChangeType;
 import helpers.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+import java.util.function.Supplier;
 
 public class Yard implements Serializable {
     private static final long serialVersionUID = 15641321L;
-    private Map<String, Bundle> bundles;
+    private static final int PLACEMENT_WINDOWS = 8;
+    private static final double LIFT_REGION_SIZE = 8.0;
+    // The bundles are saved as a list since they carry their ids, older files have them in a map keyed by id
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("bundles", Map.class),
+        new ObjectStreamField("bundleList", List.class),
+        new ObjectStreamField("lift", Lift.class),
+        new ObjectStreamField("lifts", List.class)
+    };
+    private Map<UUID, Bundle> bundles;
     private Lift lift;
-
+    private List<Lift> lifts;
+    private transient BundleZOrder bundlesZ;
+    private transient BundleStore bundleStore;
+    private transient ClearanceGrid clearanceGrid;
+    private transient List<YardChange> pendingChanges;
+    private transient StampedLock lock;
+    private transient volatile Thread writer;
+    private transient ThreadLocal<Boolean> reading;
+    private transient UndoRedo history;
 
     public Yard() {
         this.bundles = new HashMap<>();
+        this.bundlesZ = new BundleZOrder();
+        this.bundleStore = new BundleStore();
+        this.clearanceGrid = new ClearanceGrid(ConfigHelper.clearanceCellSize);
+        this.pendingChanges = new ArrayList<>();
         this.lift = new Lift(new Point2D(0, 0));
+        this.lifts = new ArrayList<>();
+        this.lifts.add(lift);
+        initLock();
+    }
+
+    // Copies the bundles and lifts directly, without a serialization round trip; the copy keeps no history
+    private Yard(Yard other) {
+        this.bundles = new HashMap<>(other.bundles.size() * 4 / 3 + 1);
+        this.bundlesZ = new BundleZOrder();
+        this.bundleStore = new BundleStore();
+        for (Bundle bundle : other.bundlesZ) {
+            Bundle copy = new Bundle(bundle);
+            bundles.put(copy.getUuid(), copy);
+            bundlesZ.add(copy);
+            bundleStore.add(copy);
+        }
+        this.lifts = new ArrayList<>();
+        for (Lift otherLift : other.lifts) {
+            Lift copy = new Lift(otherLift);
+            List<Bundle> load = new ArrayList<>();
+            for (Bundle bundle : otherLift.getBundlesOnLift()) {
+                load.add(bundles.get(bundle.getUuid()));
+            }
+            copy.setBundlesOnLift(load);
+            lifts.add(copy);
+            if (otherLift == other.lift) lift = copy;
+        }
+        this.clearanceGrid = new ClearanceGrid(ConfigHelper.clearanceCellSize);
+        this.pendingChanges = new ArrayList<>();
+        initLock();
+    }
+
+    public Yard copy() {
+        return read(() -> new Yard(this));
+    }
+
+    private void initLock() {
+        lock = new StampedLock();
+        reading = ThreadLocal.withInitial(() -> false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        List<Bundle> bundleList = (List<Bundle>) fields.get("bundleList", null);
+        if (bundleList == null) bundleList = new ArrayList<>(((Map<String, Bundle>) fields.get("bundles", null)).values());
+        lift = (Lift) fields.get("lift", null);
+        lifts = (List<Lift>) fields.get("lifts", null);
+        bundles = new HashMap<>(bundleList.size() * 4 / 3 + 1);
+        bundlesZ = new BundleZOrder();
+        bundleStore = new BundleStore();
+        for (Bundle bundle : bundleList) {
+            bundles.put(bundle.getUuid(), bundle);
+            bundlesZ.add(bundle);
+            bundleStore.add(bundle);
+        }
+        clearanceGrid = new ClearanceGrid(ConfigHelper.clearanceCellSize);
+        if (lifts == null) {
+            lifts = new ArrayList<>();
+            lifts.add(lift);
+        }
+        for (Lift yardLift : lifts) {
+            yardLift.attachBundles();
+        }
+        pendingChanges = new ArrayList<>();
+        initLock();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        if (holdsLock()) {
+            writeFields(out);
+            return;
+        }
+        long stamp = lock.readLock();
+        reading.set(true);
+        try {
+            writeFields(out);
+        } finally {
+            reading.set(false);
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void writeFields(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("bundleList", bundlesZ.toList());
+        fields.put("lift", lift);
+        fields.put("lifts", lifts);
+        out.writeFields();
+    }
+
+    // Yards outside a session, like the copies made for planning and simulation, keep no history
+    public void setHistory(UndoRedo history) {
+        this.history = history;
+    }
+
+    private void addToHistory() {
+        if (history != null) history.addCurrentYard();
+    }
+
+    private void undoAction() {
+        if (history != null) history.undoAction();
+    }
+
+    private void undoUndo() {
+        if (history != null) history.undoUndo();
+    }
+
+    private boolean holdsLock() {
+        return writer == Thread.currentThread() || reading.get();
+    }
+
+    // Anything that walks the bundle maps, the store or the clearance grid reads under the lock, a writer could be rehashing them
+    public <T> T read(Supplier<T> reader) {
+        if (holdsLock()) {
+            return reader.get();
+        }
+        long stamp = lock.readLock();
+        reading.set(true);
+        try {
+            return reader.get();
+        } finally {
+            reading.set(false);
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Only for copying a few scalar fields, like the pose of a lift: the copy is made again under the read lock if a write happened meanwhile
+    public <T> T peek(Supplier<T> reader) {
+        if (holdsLock()) {
+            return reader.get();
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            T result = reader.get();
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        return read(reader);
+    }
+
+    private <T> T write(String operation, Supplier<T> action) {
+        if (writer == Thread.currentThread()) {
+            return action.get();
+        }
+        YardMutationEvent event = new YardMutationEvent();
+        event.begin();
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        try {
+            return action.get();
+        } finally {
+            clearanceGrid.sync();
+            event.operation = operation;
+            event.bundleCount = bundles.size();
+            event.changeCount = pendingChanges.size();
+            writer = null;
+            lock.unlockWrite(stamp);
+            event.commit();
+        }
+    }
+
+    private void write(String operation, Runnable action) {
+        write(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Copies the yard under the read lock so that long-running readers don't hold up the writer
+    public YardSnapshot snapshot() {
+        return read(() -> {
+            List<BundleDto> bundleDtos = new ArrayList<>(bundlesZ.size());
+            for (Bundle bundle : bundlesZ) {
+                bundleDtos.add(new BundleDto(bundle));
+            }
+            return new YardSnapshot(bundleDtos, new LiftDto(lift));
+        });
+    }
+
+    private void publish(YardChangeType type, String bundleId) {
+        pendingChanges.add(new YardChange(type, bundleId));
+    }
+
+    private void publish(YardChangeType type) {
+        publish(type, null);
+    }
+
+    private void publishAll(YardChangeType type, List<Bundle> bundles) {
+        for (Bundle bundle : bundles) {
+            publish(type, bundle.getId());
+        }
+    }
+
+    public YardChangeSet takeChanges() {
+        return write("takeChanges", () -> {
+            YardChangeSet changeSet = new YardChangeSet(pendingChanges);
+            pendingChanges.clear();
+            return changeSet;
+        });
     }
 
     public List<Bundle> sortBundlesZ(List<Bundle> bundles) {
@@ -24,18 +259,19 @@ public class Yard implements Serializable {
         return bundles;
     }
 
-    private List<Bundle> getBundlesWithMinZ(List<Bundle> bundles, double zMin) {
+    private List<Bundle> getBundlesWithMinZ(List<Bundle> bundles, int zMin) {
         return getBundlesWithMinZ(bundles, zMin, true);
     }
 
-    private List<Bundle> getBundlesWithMinZ(List<Bundle> bundles, double zMin, boolean includeEquals) {
+    // Heights are compared in whole centimeters, so that stacked bundles meet exactly
+    private List<Bundle> getBundlesWithMinZ(List<Bundle> bundles, int zMin, boolean includeEquals) {
         List<Bundle> bundlesMinZ = new ArrayList<>();
         for (Bundle bundle : bundles) {
             boolean shouldAdd = includeEquals
-                ? MathHelper.compareDoubles(bundle.getZ(), zMin) != Comparison.SMALLER
-                : MathHelper.compareDoubles(bundle.getZ(), zMin) == Comparison.GREATER;
+                ? bundle.getFixedZ() >= zMin
+                : bundle.getFixedZ() > zMin;
             if (shouldAdd) {
-                zMin = bundle.getTopZ();
+                zMin = bundle.getFixedTopZ();
                 bundlesMinZ.add(bundle);
             }
         }
@@ -43,33 +279,182 @@ public class Yard implements Serializable {
     }
 
     public List<Bundle> getBundles() {
-        return new ArrayList<>(this.bundles.values());
+        return read(() -> new ArrayList<>(bundles.values()));
+    }
+
+    public List<Bundle> getBundlesSortedZ() {
+        return read(() -> bundlesZ.toList());
     }
 
+    // The lift driven by the lift commands
     public Lift getLift() {
         return lift;
     }
 
+    public List<Lift> getLifts() {
+        return read(() -> new ArrayList<>(lifts));
+    }
+
+    public int getActiveLiftIndex() {
+        return read(() -> lifts.indexOf(lift));
+    }
+
+    public void selectLift(int index) {
+        write("selectLift", () -> {
+            if (index >= 0 && index < lifts.size()) {
+                lift = lifts.get(index);
+                publish(YardChangeType.LIFT_MOVED);
+            }
+        });
+    }
+
+    // Refused when the new lift would stand on a bundle or another lift
+    public Lift addLift(Point2D position) {
+        return write("addLift", () -> {
+            Lift newLift = new Lift(position);
+            if (liftCollides(newLift)) return null;
+            lifts.add(newLift);
+            publish(YardChangeType.LIFT_MOVED);
+            return newLift;
+        });
+    }
+
+    // The last lift and loaded lifts stay in the yard
+    public boolean removeLift(int index) {
+        return write("removeLift", () -> {
+            if (lifts.size() <= 1 || index < 0 || index >= lifts.size()) return false;
+            if (!lifts.get(index).getBundlesOnLift().isEmpty()) return false;
+            Lift removedLift = lifts.remove(index);
+            if (removedLift == lift) lift = lifts.get(0);
+            publish(YardChangeType.LIFT_MOVED);
+            return true;
+        });
+    }
+
     public Bundle createBundle(Point2D position) {
-        UndoRedo.addCurrentYard();
-        Bundle bundle = new Bundle(position);
-        bundles.put(bundle.getId(), bundle);
-        putBundleToTop(bundle);
-        CenteredRectangle rectangleNew = new CenteredRectangle(bundle);
-        for(Bundle bundlesInLift : lift.getBundlesOnLift()) {
-            CenteredRectangle rectangleInLift = new CenteredRectangle(bundlesInLift);
-            if (GeomHelper.rectangleCollidesRectangle(rectangleNew,rectangleInLift)) {
-                UndoRedo.undoAction();
+        return write("createBundle", () -> {
+            addToHistory();
+            Bundle bundle = new Bundle(position);
+            bundles.put(bundle.getUuid(), bundle);
+            bundlesZ.add(bundle);
+            bundleStore.add(bundle);
+            clearanceGrid.add(bundle);
+            publish(YardChangeType.BUNDLE_ADDED, bundle.getId());
+            putBundleToTop(bundle);
+            CenteredRectangle rectangleNew = new CenteredRectangle(bundle);
+            for (Lift yardLift : lifts) {
+                for(Bundle bundlesInLift : yardLift.getBundlesOnLift()) {
+                    CenteredRectangle rectangleInLift = new CenteredRectangle(bundlesInLift);
+                    if (GeomHelper.rectangleCollidesRectangle(rectangleNew,rectangleInLift)) {
+                        deleteBundle(bundle.getId());
+                        undoUndo();
+                        return null;
+                    }
+                }
+            }
+            if (liftCollidesAnyBundle()) {
+                deleteBundle(bundle.getId());
+                undoUndo();
                 return null;
             }
+            else{
+                return bundle;
+            }
+        });
+    }
+
+    // Places the bundle as is, without the stacking, collision and undo handling of createBundle
+    public void addBundle(Bundle bundle) {
+        write("addBundle", () -> {
+            bundles.put(bundle.getUuid(), bundle);
+            bundlesZ.add(bundle);
+            bundleStore.add(bundle);
+            clearanceGrid.add(bundle);
+            publish(YardChangeType.BUNDLE_ADDED, bundle.getId());
+        });
+    }
+
+    // Free ground positions for the footprint, nearest to the target first; the search window doubles until one is found
+    public List<Point2D> findFreePlacements(Point2D target, double width, double length, double angle, int count) {
+        return findFreePlacements(target, width, length, angle, count, Collections.emptyList());
+    }
+
+    // Reserved footprints count as obstacles, for placements planned but not made yet
+    public List<Point2D> findFreePlacements(Point2D target, double width, double length, double angle, int count, List<CenteredRectangle> reserved) {
+        return read(() -> {
+            List<Point2D> placements = new ArrayList<>();
+            double halfSize = Math.max(width, length);
+            for (int i = 0; i < PLACEMENT_WINDOWS && placements.isEmpty(); i++, halfSize *= 2) {
+                CenteredRectangle window = new CenteredRectangle(target, 2 * halfSize, 2 * halfSize, angle);
+                List<CenteredRectangle> obstacles = getPlacementObstacles(window);
+                obstacles.addAll(reserved);
+                PlacementSearch search = new PlacementSearch(width, length, angle);
+                for (CenteredRectangle obstacle : obstacles) {
+                    search.addObstacle(obstacle);
+                }
+                for (Point2D candidate : search.search(target, halfSize)) {
+                    Point2D position = new Point2D(FixedPoint.round(candidate.getX()), FixedPoint.round(candidate.getY()));
+                    if (placements.size() < count && isFree(new CenteredRectangle(position, width, length, angle), obstacles)) {
+                        placements.add(position);
+                    }
+                }
+            }
+            return placements;
+        });
+    }
+
+    private List<CenteredRectangle> getPlacementObstacles(CenteredRectangle window) {
+        List<CenteredRectangle> obstacles = new ArrayList<>();
+        for (Bundle bundle : getBundlesUnder(window, Double.POSITIVE_INFINITY)) {
+            obstacles.add(new CenteredRectangle(bundle));
         }
-        if (liftCollidesAnyBundle()) {
-            UndoRedo.undoAction();
-            return null;
+        for (Lift yardLift : lifts) {
+            obstacles.addAll(getLiftFootprint(yardLift, new LiftDto(yardLift)));
         }
-        else{
-            return bundle;
+        return obstacles;
+    }
+
+    private boolean isFree(CenteredRectangle footprint, List<CenteredRectangle> obstacles) {
+        for (CenteredRectangle obstacle : obstacles) {
+            if (GeomHelper.rectangleCollidesRectangle(footprint, obstacle)) return false;
         }
+        return true;
+    }
+
+    // A plan must move every bundle on the ground as it was planned from, and keep them all clear of the lifts
+    public boolean canApplyMoves(List<BundleMove> moves) {
+        return read(() -> {
+            int groundBundles = 0;
+            for (Bundle bundle : bundles.values()) {
+                if (!bundle.isCarried()) groundBundles++;
+            }
+            if (groundBundles != moves.size()) return false;
+            for (BundleMove move : moves) {
+                Bundle bundle = bundles.get(Bundle.parseId(move.id));
+                if (bundle == null || bundle.isCarried() || bundle.getVersion() != move.version) return false;
+                CenteredRectangle rectangle = new CenteredRectangle(move.position, bundle.getWidth(), bundle.getLength(), move.angle);
+                for (Lift yardLift : lifts) {
+                    if (yardLift.getHeight() > move.z && GeomHelper.rectangleCollidesRectangle(rectangle, new CenteredRectangle(new LiftDto(yardLift)))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+    }
+
+    // The moves are made as planned, without stacking or collision handling
+    public void applyMoves(List<BundleMove> moves) {
+        write("applyMoves", () -> {
+            for (BundleMove move : moves) {
+                Bundle bundle = bundles.get(Bundle.parseId(move.id));
+                if (bundle == null || bundle.isCarried()) continue;
+                bundle.setPosition(move.position);
+                bundle.setAngleOnLift(move.angle);
+                bundle.setZ(move.z);
+                publish(YardChangeType.BUNDLE_MOVED, bundle.getId());
+            }
+        });
     }
 
     private void putBundleToTop(Bundle bundle) {
@@ -80,22 +465,39 @@ public class Yard implements Serializable {
         if (!bundlesToPutUnder.isEmpty()) {
             Bundle higherBundle = Collections.max(bundlesToPutUnder, Comparator.comparing(Bundle::getTopZ));
             bundle.setZ(higherBundle.getTopZ());
+            publish(YardChangeType.BUNDLE_RESTACKED, bundle.getId());
             if (liftCollidesAnyBundle()) {
                 deleteBundle(bundle.getId());
-                UndoRedo.undoUndo();
+                undoUndo();
             }
         } else {
             bundle.setZ(0);
+            publish(YardChangeType.BUNDLE_RESTACKED, bundle.getId());
         }
     }
 
     public Bundle getBundle(String id) {
-        return bundles.get(id);
+        return read(() -> bundles.get(Bundle.parseId(id)));
     }
 
     public List<Bundle> getBundlesAtPosition(Point2D position) {
+        return read(() -> {
+            List<Bundle> selectedBundles = getBundlesContaining(position);
+            selectedBundles.sort(BundleZOrder.ORDER);
+            return selectedBundles;
+        });
+    }
+
+    public Bundle getTopBundle(Point2D position) {
+        return read(() -> {
+            List<Bundle> selectedBundles = getBundlesContaining(position);
+            return selectedBundles.isEmpty() ? null : Collections.max(selectedBundles, BundleZOrder.ORDER);
+        });
+    }
+
+    private List<Bundle> getBundlesContaining(Point2D position) {
         List<Bundle> selectedBundles = new ArrayList<>();
-        for (Bundle bundle : new ArrayList<>(bundles.values())) {
+        for (Bundle bundle : bundleStore.getBundlesAround(position.getX(), position.getY())) {
             if (GeomHelper.pointIsInsideRectangle(position, new CenteredRectangle(bundle))) {
                 selectedBundles.add(bundle);
             }
@@ -103,71 +505,70 @@ public class Yard implements Serializable {
         return selectedBundles;
     }
 
-    public Bundle getTopBundle(Point2D position) {
-        List<Bundle> bundles = sortBundlesZ(getBundlesAtPosition(position));
-        if (!bundles.isEmpty()) {
-            return bundles.get(bundles.size() - 1);
-        }
-        return null;
-    }
-
     public void deleteBundle(String id) {
-        bundles.remove(id);
+        write("deleteBundle", () -> {
+            Bundle bundle = bundles.remove(Bundle.parseId(id));
+            if (bundle != null) {
+                bundlesZ.remove(bundle);
+                bundleStore.remove(bundle);
+                clearanceGrid.remove(bundle);
+                publish(YardChangeType.BUNDLE_REMOVED, id);
+            }
+        });
     }
 
     public void modifyBundleProperties(BundleDto bundleDto) {
-        Bundle bundle = getBundle(bundleDto.id);
-        boolean modifiedBundleCollidesLift = GeomHelper.rectangleCollidesRectangle(
-            new CenteredRectangle(bundleDto),
-            new CenteredRectangle(lift)
-        );
-        boolean isOnLift = false;
-        List<Bundle> bundleOnLift = lift.getBundlesOnLift();
-        if (!bundleOnLift.isEmpty()) {
-            for (Bundle bundleLift : bundleOnLift) {
-                if (bundleLift.getId().equals(bundleDto.id)) {
-                    isOnLift = true;
-                    break;
+        write("modifyBundleProperties", () -> {
+            Bundle bundle = getBundle(bundleDto.id);
+            boolean modifiedBundleCollidesLift = GeomHelper.rectangleCollidesRectangle(
+                new CenteredRectangle(bundleDto),
+                new CenteredRectangle(lift)
+            );
+            // A bundle carried by any of the lifts moves with it only
+            boolean isOnLift = bundle != null && bundle.isCarried();
+            if (bundle != null && !modifiedBundleCollidesLift && !isOnLift) {
+                Set<Bundle> allTimeCollidingBundles = new LinkedHashSet<>(getAllCollidingBundles(bundle, true));
+                bundle.setBarcode(bundleDto.barcode);
+                bundle.setHeight(bundleDto.height);
+                bundle.setWidth(bundleDto.width);
+                bundle.setLength(bundleDto.length);
+                bundle.setTime(bundleDto.time);
+                bundle.setDate(bundleDto.date);
+                bundle.setEssence(bundleDto.essence);
+                bundle.setPlanckSize(bundleDto.plankSize);
+                bundle.setAngle(bundleDto.angle);
+                bundle.setZ(bundleDto.z);
+                publish(YardChangeType.BUNDLE_MODIFIED, bundle.getId());
+                allTimeCollidingBundles.addAll(getAllCollidingBundles(bundle, true));
+                adjustBundlesHeightAfterChange(bundle, new ArrayList<>(allTimeCollidingBundles));
+                if (liftCollidesAnyBundle()) {
+                    undoAction();
                 }
+            } else {
+                undoUndo();
             }
-        }
-        if (bundle != null && !modifiedBundleCollidesLift && !isOnLift) {
-            Set<Bundle> allTimeCollidingBundles = new LinkedHashSet<>(getAllCollidingBundles(bundle, true));
-            bundle.setBarcode(bundleDto.barcode);
-            bundle.setHeight(MathHelper.round(bundleDto.height, 2));
-            bundle.setWidth(MathHelper.round(bundleDto.width, 2));
-            bundle.setLength(MathHelper.round(bundleDto.length, 2));
-            bundle.setTime(bundleDto.time);
-            bundle.setDate(bundleDto.date);
-            bundle.setEssence(bundleDto.essence);
-            bundle.setPlanckSize(bundleDto.plankSize);
-            bundle.setAngle(MathHelper.round(bundleDto.angle, 2));
-            bundle.setZ(MathHelper.round(bundleDto.z, 2));
-            allTimeCollidingBundles.addAll(getAllCollidingBundles(bundle, true));
-            adjustBundlesHeightAfterChange(bundle, new ArrayList<>(allTimeCollidingBundles));
-            if (liftCollidesAnyBundle()) {
-                UndoRedo.undoAction();
-            }
-        } else {
-            UndoRedo.undoUndo();
-        }
+        });
     }
 
     public void modifyLiftProperties(LiftDto liftDto) {
-        double scaleBackup = lift.getScale();
-        if (liftDto != null && !liftDtoCollidesAnyBundle(liftDto) && liftDto.length > liftDto.armsLength) {
-            lift.setArmsHeight(MathHelper.round(liftDto.armsHeight, 2));
-            lift.setPosition(new Point2D(liftDto.position.getX(), liftDto.position.getY()));
-            lift.setAngle(MathHelper.round(liftDto.angle, 2));
-            lift.setScale(MathHelper.round(liftDto.scale, 2));
-        }
-        if (liftDtoCollidesAnyBundle(new LiftDto(lift))) {
-            lift.setScale(scaleBackup);
-        }
+        write("modifyLiftProperties", () -> {
+            double scaleBackup = lift.getScale();
+            if (liftDto != null && !liftDtoCollides(liftDto, lift) && liftDto.length > liftDto.armsLength) {
+                lift.setArmsHeight(MathHelper.round(liftDto.armsHeight, 2));
+                lift.setPosition(new Point2D(liftDto.position.getX(), liftDto.position.getY()));
+                lift.setAngle(MathHelper.round(liftDto.angle, 2));
+                lift.setScale(MathHelper.round(liftDto.scale, 2));
+                publishAll(YardChangeType.BUNDLE_MOVED, lift.getBundlesOnLift());
+            }
+            if (liftCollides(lift)) {
+                lift.setScale(scaleBackup);
+            }
+            publish(YardChangeType.LIFT_MOVED);
+        });
     }
 
     private void adjustBundlesHeightAfterChange(Bundle source, List<Bundle> allTimeCollidingBundles) {
-        List<Bundle> bundlesToAdjust = sortBundlesZ(getBundlesWithMinZ(allTimeCollidingBundles, source.getZ()));
+        List<Bundle> bundlesToAdjust = sortBundlesZ(getBundlesWithMinZ(allTimeCollidingBundles, source.getFixedZ()));
         adjustBundleHeight(source, bundlesToAdjust);
         Iterator<Bundle> bundlesToAdjustIterator = bundlesToAdjust.iterator();
         while (bundlesToAdjustIterator.hasNext()) {
@@ -183,44 +584,48 @@ public class Yard implements Serializable {
     }
 
     public void modifyBundlePosition(String id, Point2D position) {
-        Bundle bundle = getBundle(id);
-        boolean isOnLift = false;
-        List<Bundle> bundleOnLift = lift.getBundlesOnLift();
-        if (!bundleOnLift.isEmpty()) {
-            for (Bundle bundleLift : bundleOnLift) {
-                if (bundleLift.getId().equals(id)) {
-                    isOnLift = true;
-                    break;
+        write("modifyBundlePosition", () -> {
+            Bundle bundle = getBundle(id);
+            boolean isOnLift = bundle != null && bundle.isCarried();
+            if (bundle != null && !isOnLift) {
+                Point2D oldPosition = bundle.getPosition();
+                bundle.setPosition(position);
+                publish(YardChangeType.BUNDLE_MOVED, id);
+                putBundleToTop(bundle);
+                if (liftCollidesAnyBundle()) {
+                    bundle.setPosition(oldPosition);
                 }
             }
-        }
-        if (bundle != null && !isOnLift) {
-            Point2D oldPosition = bundle.getPosition();
-            bundle.setPosition(position);
-            putBundleToTop(bundle);
-            if (liftCollidesAnyBundle()) {
-                bundle.setPosition(oldPosition);
-            }
-        }
+        });
     }
 
     public List<Bundle> getCollidingBundles(Bundle bundleToCheck, Set<Bundle> exceptionList) {
-        List<Bundle> collidingBundles = new ArrayList<>();
-        for (Bundle bundle : getBundles()) {
-            if (bundle != bundleToCheck) {
-                if (exceptionList != null && exceptionList.contains(bundle)) {
-                    continue;
-                }
-                boolean bundleCollides = GeomHelper.rectangleCollidesRectangle(
-                    new CenteredRectangle(bundle),
-                    new CenteredRectangle(bundleToCheck)
-                );
-                if (bundleCollides) {
-                    collidingBundles.add(bundle);
+        return read(() -> {
+            CollisionQueryEvent event = new CollisionQueryEvent();
+            event.begin();
+            List<Bundle> collidingBundles = new ArrayList<>();
+            CenteredRectangle rectangleToCheck = new CenteredRectangle(bundleToCheck);
+            Point2D position = bundleToCheck.getPosition();
+            for (Bundle bundle : bundleStore.getNearBundles(position.getX(), position.getY(), bundleToCheck.getWidth(), bundleToCheck.getLength())) {
+                if (bundle != bundleToCheck) {
+                    if (exceptionList != null && exceptionList.contains(bundle)) {
+                        continue;
+                    }
+                    event.candidates++;
+                    boolean bundleCollides = GeomHelper.rectangleCollidesRectangle(
+                        new CenteredRectangle(bundle),
+                        rectangleToCheck
+                    );
+                    if (bundleCollides) {
+                        collidingBundles.add(bundle);
+                    }
                 }
             }
-        }
-        return collidingBundles;
+            event.query = "getCollidingBundles";
+            event.hits = collidingBundles.size();
+            event.commit();
+            return collidingBundles;
+        });
     }
 
     private List<Bundle> getAllCollidingBundles(Bundle originBundle, boolean removeOriginBundle) {
@@ -249,38 +654,154 @@ public class Yard implements Serializable {
         return new ArrayList<>(allCollidingBundles);
     }
 
+    public List<Bundle> getSupportedBundles(Bundle bundle) {
+        return read(() -> {
+            List<Bundle> supportedBundles = new ArrayList<>();
+            for (Bundle other : getCollidingBundles(bundle, null)) {
+                if (other.getFixedZ() == bundle.getFixedTopZ()) {
+                    supportedBundles.add(other);
+                }
+            }
+            return supportedBundles;
+        });
+    }
+
+    public Bundle findBundle(String idOrBarcode) {
+        return read(() -> {
+            Bundle bundle = bundles.get(Bundle.parseId(idOrBarcode));
+            if (bundle != null) return bundle;
+            for (Bundle other : bundlesZ) {
+                if (other.getBarcode().equals(idOrBarcode)) return other;
+            }
+            return null;
+        });
+    }
+
     public List<Bundle> getAllCollidingBundles(BundleDto bundleToCheck) {
-        return getAllCollidingBundles(getBundle(bundleToCheck.id), false);
+        return read(() -> getAllCollidingBundles(getBundle(bundleToCheck.id), false));
+    }
+
+    public List<String> validate() {
+        return read(() -> {
+            List<String> problems = new ArrayList<>();
+            Set<Bundle> checkedBundles = new HashSet<>();
+            for (Bundle bundle : bundlesZ) {
+                if (bundle.getWidth() <= 0 || bundle.getLength() <= 0 || bundle.getHeight() <= 0) {
+                    problems.add("Le paquet " + bundle.getBarcode() + " a des dimensions invalides");
+                }
+                boolean supported = bundle.getFixedZ() == 0 || bundle.isCarried();
+                for (Bundle other : getCollidingBundles(bundle, null)) {
+                    if (other.getFixedTopZ() == bundle.getFixedZ()) {
+                        supported = true;
+                    }
+                    boolean overlaps = other.getFixedZ() < bundle.getFixedTopZ() && bundle.getFixedZ() < other.getFixedTopZ();
+                    if (overlaps && !checkedBundles.contains(other)) {
+                        problems.add("Les paquets " + bundle.getBarcode() + " et " + other.getBarcode() + " se chevauchent");
+                    }
+                }
+                if (!supported) {
+                    problems.add("Le paquet " + bundle.getBarcode() + " n'est pas supporté");
+                }
+                checkedBundles.add(bundle);
+            }
+            if (liftCollidesAnyBundle()) {
+                problems.add("La chargeuse touche un paquet");
+            }
+            return problems;
+        });
     }
 
+    // Any lift of the yard, for changes made to the bundles
     private boolean liftCollidesAnyBundle() {
-        return liftCollidesAnyBundle(getBundles());
+        for (Lift yardLift : lifts) {
+            if (liftDtoCollidesAnyBundle(new LiftDto(yardLift))) return true;
+        }
+        return false;
     }
 
-    private boolean liftCollidesAnyBundle(List<Bundle> bundles) {
-        for (Bundle bundle : bundles) {
-            if (liftCollidesBundle(bundle) && lift.getHeight() > bundle.getZ()) {
-                return true;
-            }
+    // Bundles and the other lifts with their loads, for the motions of a lift
+    private boolean liftCollides(Lift movingLift) {
+        return liftDtoCollides(new LiftDto(movingLift), movingLift);
+    }
+
+    private boolean liftDtoCollides(LiftDto liftDto, Lift movingLift) {
+        return liftDtoCollidesAnyBundle(liftDto) || liftDtoCollidesOtherLift(liftDto, movingLift);
+    }
+
+    private boolean liftDtoCollidesOtherLift(LiftDto liftDto, Lift movingLift) {
+        List<CenteredRectangle> footprint = getLiftFootprint(movingLift, liftDto);
+        for (Lift other : lifts) {
+            if (other != movingLift && footprintsCollide(footprint, getLiftFootprint(other, new LiftDto(other)))) return true;
         }
         return false;
     }
 
-    private boolean liftDtoCollidesAnyBundle(LiftDto liftDto) {
-        return liftDtoCollidesAnyBundle(liftDto, getBundles());
+    // The lift body at the pose, with its load carried along from the current pose
+    private List<CenteredRectangle> getLiftFootprint(Lift yardLift, LiftDto pose) {
+        List<CenteredRectangle> footprint = new ArrayList<>();
+        footprint.add(new CenteredRectangle(pose));
+        double turn = Math.toRadians(pose.angle - yardLift.getAngle());
+        double cos = Math.cos(turn);
+        double sin = Math.sin(turn);
+        for (Bundle bundle : yardLift.getBundlesOnLift()) {
+            double dx = bundle.getPosition().getX() - yardLift.getPosition().getX();
+            double dy = bundle.getPosition().getY() - yardLift.getPosition().getY();
+            Point2D position = new Point2D(pose.position.getX() + dx * cos - dy * sin, pose.position.getY() + dx * sin + dy * cos);
+            footprint.add(new CenteredRectangle(position, bundle.getWidth(), bundle.getLength(), bundle.getAngle() + pose.angle - yardLift.getAngle()));
+        }
+        return footprint;
     }
 
-    private boolean liftDtoCollidesAnyBundle(LiftDto liftDto, List<Bundle> bundles) {
-        for (Bundle bundle : bundles) {
-            if (liftDtoCollidesBundle(liftDto, bundle) && liftDto.height > bundle.getZ()) {
-                return true;
+    private static boolean footprintsCollide(List<CenteredRectangle> footprint, List<CenteredRectangle> otherFootprint) {
+        for (CenteredRectangle rectangle : footprint) {
+            for (CenteredRectangle otherRectangle : otherFootprint) {
+                if (GeomHelper.rectangleCollidesRectangle(rectangle, otherRectangle)) return true;
             }
         }
         return false;
     }
 
-    private boolean liftCollidesBundle(Bundle bundle) {
-        return liftDtoCollidesBundle(new LiftDto(lift), bundle);
+    private boolean liftDtoCollidesAnyBundle(LiftDto liftDto) {
+        return liftDtoCollidesAnyBundle(liftDto, getBundlesUnder(new CenteredRectangle(liftDto), liftDto.height));
+    }
+
+    // The clearance grid is built by the writer on first use and kept in sync at the end of every write
+    private List<Bundle> getBundlesUnder(CenteredRectangle rectangle, double height) {
+        if (writer == Thread.currentThread()) {
+            prepareClearanceGrid();
+        } else if (!clearanceGrid.isBuilt()) {
+            return getBundles();
+        }
+        return clearanceGrid.getBundles(rectangle, height);
+    }
+
+    // For a private copy about to be queried from several threads, which would otherwise scan every bundle
+    public void buildClearanceGrid() {
+        write("buildClearanceGrid", this::prepareClearanceGrid);
+    }
+
+    private void prepareClearanceGrid() {
+        if (!clearanceGrid.isBuilt()) clearanceGrid.build(bundlesZ);
+        clearanceGrid.sync();
+    }
+
+    private boolean liftDtoCollidesAnyBundle(LiftDto liftDto, List<Bundle> bundles) {
+        CollisionQueryEvent event = new CollisionQueryEvent();
+        event.begin();
+        event.query = "liftCollidesAnyBundle";
+        try {
+            for (Bundle bundle : bundles) {
+                if (bundle.isCarried()) continue;
+                event.candidates++;
+                if (liftDtoCollidesBundle(liftDto, bundle) && liftDto.height > bundle.getZ()) {
+                    event.hits = 1;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            event.commit();
+        }
     }
 
     private boolean liftDtoCollidesBundle(LiftDto liftDto, Bundle bundle) {
@@ -291,206 +812,407 @@ public class Yard implements Serializable {
     }
 
     public void moveLiftForward() {
-        if (!lift.getBundlesOnLift().isEmpty()) {
-            movingBundles(lift.getBundlesOnLift(), true);
-        }
-        lift.moveForward();
-        if (liftCollidesAnyBundle()) {
-            lift.moveBackward();
-            if (!lift.getBundlesOnLift().isEmpty()) {
-                movingBundles(lift.getBundlesOnLift(), false);
+        write("moveLiftForward", () -> {
+            publish(YardChangeType.LIFT_MOVED);
+            publishAll(YardChangeType.BUNDLE_MOVED, lift.getBundlesOnLift());
+            lift.moveForward();
+            if (liftCollides(lift)) {
+                lift.moveBackward();
             }
-        }
+        });
     }
 
     public void moveLiftBackward() {
-        if (!lift.getBundlesOnLift().isEmpty()) {
-            movingBundles(lift.getBundlesOnLift(), false);
-        }
-        lift.moveBackward();
-        if (liftCollidesAnyBundle()) {
-            lift.moveForward();
-            if (!lift.getBundlesOnLift().isEmpty()) {
-                movingBundles(lift.getBundlesOnLift(), true);
+        write("moveLiftBackward", () -> {
+            publish(YardChangeType.LIFT_MOVED);
+            publishAll(YardChangeType.BUNDLE_MOVED, lift.getBundlesOnLift());
+            lift.moveBackward();
+            if (liftCollides(lift)) {
+                lift.moveForward();
             }
-        }
+        });
     }
 
     public void moveLiftToBundle() {
-        if (lift.getBundlesOnLift().isEmpty()) {
-            Point2D point1 = new Point2D(lift.position.getX(), lift.position.getY());
-            Point2D point2 = new Point2D(lift.position.getX() + 100000 * Math.cos(Math.toRadians(lift.angle)), lift.position.getY() + 100000 * Math.sin(Math.toRadians(lift.angle)));
-            Point2D point3 = new Point2D(lift.position.getX() + (lift.getArmsLength() / 2), lift.position.getY() + (lift.getArmsLength() / 2));
-            Point2D point4 = new Point2D(lift.position.getX() + (100000 + lift.getArmsLength() / 2) * Math.cos(Math.toRadians(lift.angle)), lift.position.getY() + (lift.getArmsLength() / 2 + 100000) * Math.sin(Math.toRadians(lift.angle)));
-            Point2D point5 = new Point2D(lift.position.getX() - (lift.getArmsLength() / 2) * Math.cos(Math.toRadians(lift.angle)), lift.position.getY() - (lift.getArmsLength() / 2) * Math.sin(Math.toRadians(lift.angle)));
-            Point2D point6 = new Point2D(lift.position.getX() - (lift.getArmsLength() / 2 + 100000) * Math.cos(Math.toRadians(lift.angle)), lift.position.getY() - (lift.getArmsLength() / 2 + 100000) * Math.sin(Math.toRadians(lift.angle)));
-            List<Bundle> listBundles = getBundles();
-            for (Bundle bundles : listBundles) {
-                double z = bundles.getZ();
-                CenteredRectangle rectangle = new CenteredRectangle(bundles.position.getX(), bundles.position.getY(), bundles.width, bundles.length, bundles.angle);
-                if (GeomHelper.lineIntersectsRectangle(point1, point2, rectangle) && lift.height > z) {
-                    while (!liftCollidesAnyBundle()) {
-                        lift.moveForward();
+        write("moveLiftToBundle", () -> {
+            publish(YardChangeType.LIFT_MOVED);
+            if (lift.getBundlesOnLift().isEmpty()) {
+                int steps = getLiftApproachSteps();
+                if (steps > 0) {
+                    lift.moveForward(steps);
+                    while (liftCollides(lift) && steps-- > 0) {
+                        lift.moveBackward();
                     }
-                    lift.moveBackward();
                 }
-                if (GeomHelper.lineIntersectsRectangle(point3, point4, rectangle) && lift.height > z) {
-                    while (!liftCollidesAnyBundle()) {
-                        lift.moveForward();
-                    }
-                    lift.moveBackward();
-                }
-                if (GeomHelper.lineIntersectsRectangle(point5, point6, rectangle) && lift.height > z) {
-                    while (!liftCollidesAnyBundle()) {
-                        lift.moveForward();
-                    }
+            }
+        });
+    }
+
+    // Whole lift increments that fit before the lift or its load touches a bundle or another lift ahead of it, -1 when nothing is in the way
+    public int getLiftApproachSteps() {
+        return read(() -> {
+            Point2D increment = lift.getPositionIncrement();
+            double step = Math.hypot(increment.getX(), increment.getY());
+            if (step == 0) return -1;
+            Point2D heading = new Point2D(increment.getX() / step, increment.getY() / step);
+            List<CenteredRectangle> footprint = getLiftFootprint(lift, new LiftDto(lift));
+            double distance = Double.POSITIVE_INFINITY;
+            CollisionQueryEvent event = new CollisionQueryEvent();
+            event.begin();
+            event.query = "liftApproach";
+            List<CenteredRectangle> obstacles = new ArrayList<>();
+            for (Bundle bundle : getBundlesAlongLiftPath(footprint, heading)) {
+                obstacles.add(new CenteredRectangle(bundle));
+            }
+            for (Lift other : lifts) {
+                if (other != lift) obstacles.addAll(getLiftFootprint(other, new LiftDto(other)));
+            }
+            for (CenteredRectangle obstacle : obstacles) {
+                event.candidates++;
+                double obstacleDistance = getSweptDistance(footprint, heading, obstacle);
+                if (!Double.isInfinite(obstacleDistance)) {
+                    event.hits++;
+                    distance = Math.min(distance, obstacleDistance);
                 }
             }
-        }
+            event.commit();
+            if (Double.isInfinite(distance)) return -1;
+            return Math.max(0, (int) Math.ceil(distance / step) - 1);
+        });
     }
 
-    public void turnLiftRight() {
-        if (!lift.getBundlesOnLift().isEmpty()) {
-            turnBundlesRight(lift.getBundlesOnLift());
+    private static double getSweptDistance(List<CenteredRectangle> footprint, Point2D heading, CenteredRectangle obstacle) {
+        double distance = Double.POSITIVE_INFINITY;
+        for (CenteredRectangle rectangle : footprint) {
+            distance = Math.min(distance, GeomHelper.getSweptDistance(rectangle, heading, obstacle));
         }
-        lift.turnRight();
-        if (liftCollidesAnyBundle()) {
-            lift.turnLeft();
-            if (!lift.getBundlesOnLift().isEmpty()) {
-                turnBundlesLeft(lift.getBundlesOnLift());
-            }
+        return distance;
+    }
+
+    // Radius around the center of the lift that holds the lift and its load
+    private static double getFootprintRadius(List<CenteredRectangle> footprint, Point2D center) {
+        double radius = 0;
+        for (CenteredRectangle rectangle : footprint) {
+            double offset = Math.hypot(rectangle.getX() - center.getX(), rectangle.getY() - center.getY());
+            radius = Math.max(radius, offset + Math.hypot(rectangle.getWidth(), rectangle.getHeight()) / 2);
         }
+        return radius;
+    }
+
+    // Bounding circles against the corridor swept by the lift, the exact test is left to getSweptDistance
+    private List<Bundle> getBundlesAlongLiftPath(List<CenteredRectangle> footprint, Point2D heading) {
+        Point2D center = footprint.get(0).getPosition();
+        double liftRadius = getFootprintRadius(footprint, center);
+        List<Bundle> bundles = bundleStore.getBundlesAlong(center.getX(), center.getY(), liftRadius, heading.getX(), heading.getY(), lift.height);
+        bundles.removeAll(lift.getBundlesOnLift());
+        return bundles;
+    }
+
+    public void turnLiftRight() {
+        turnLift(-ConfigHelper.liftAngleIncrement);
     }
 
     public void turnLiftLeft() {
-        if (!lift.getBundlesOnLift().isEmpty()) {
-            turnBundlesLeft(lift.getBundlesOnLift());
+        turnLift(ConfigHelper.liftAngleIncrement);
+    }
+
+    // Positive angles turn left; the whole turn is refused when the lift would sweep into a bundle
+    public void turnLift(double angle) {
+        write("turnLift", () -> {
+            publish(YardChangeType.LIFT_MOVED);
+            if (angle == 0 || getMaxTurn(lift, angle) != angle) return;
+            LiftDto turnedLift = new LiftDto(lift).withAngle(lift.angle + angle);
+            if (liftDtoCollides(turnedLift, lift)) return;
+            publishAll(YardChangeType.BUNDLE_MOVED, lift.getBundlesOnLift());
+            lift.turn(angle);
+        });
+    }
+
+    // Part of the requested turn the lift can make before its footprint touches a bundle
+    public double getMaxLiftTurn(double angle) {
+        return read(() -> getMaxTurn(lift, angle));
+    }
+
+    // Takes no lock, so that the lift tick can run it from worker threads while it holds the write lock.
+    // The load turns with the lift around its center, each carried bundle is swept against the bundles at its height
+    private double getMaxTurn(Lift turningLift, double angle) {
+        List<CenteredRectangle> footprint = getLiftFootprint(turningLift, new LiftDto(turningLift));
+        List<Bundle> load = turningLift.getBundlesOnLift();
+        Point2D pivot = turningLift.getPosition();
+        double liftRadius = getFootprintRadius(footprint, pivot);
+        double top = turningLift.height;
+        for (Bundle carried : load) {
+            top = Math.max(top, carried.getTopZ());
         }
-        lift.turnLeft();
-        if (liftCollidesAnyBundle()) {
-            lift.turnRight();
-            if (!lift.getBundlesOnLift().isEmpty()) {
-                turnBundlesRight(lift.getBundlesOnLift());
+        double maxTurn = angle;
+        CollisionQueryEvent event = new CollisionQueryEvent();
+        event.begin();
+        event.query = "liftTurn";
+        CenteredRectangle sweptArea = new CenteredRectangle(pivot, 2 * liftRadius, 2 * liftRadius, 0);
+        for (Bundle bundle : getBundlesUnder(sweptArea, top)) {
+            if (bundle.isCarried()) continue;
+            double reach = liftRadius + Math.hypot(bundle.getWidth(), bundle.getLength()) / 2;
+            double dx = bundle.getPosition().getX() - pivot.getX();
+            double dy = bundle.getPosition().getY() - pivot.getY();
+            if (dx * dx + dy * dy > reach * reach) continue;
+            event.candidates++;
+            CenteredRectangle obstacle = new CenteredRectangle(bundle);
+            for (int i = 0; i < footprint.size(); i++) {
+                // The lift body comes first in its footprint, then its load in the same order
+                boolean sameHeight = i == 0
+                    ? bundle.getZ() < turningLift.height
+                    : bundle.getZ() < load.get(i - 1).getTopZ() && load.get(i - 1).getZ() < bundle.getTopZ();
+                if (!sameHeight) continue;
+                double bundleTurn = GeomHelper.getSweptRotation(footprint.get(i), pivot, maxTurn, obstacle);
+                if (bundleTurn != maxTurn) {
+                    event.hits++;
+                    maxTurn = bundleTurn;
+                }
             }
         }
+        event.commit();
+        return maxTurn;
     }
 
     public void riseArms() {
-        lift.riseArms();
+        write("riseArms", () -> {
+            lift.riseArms();
+            publish(YardChangeType.LIFT_MOVED);
+            publishAll(YardChangeType.BUNDLE_RESTACKED, lift.getBundlesOnLift());
+        });
     }
 
     public void lowerArms() {
-        lift.lowerArms();
+        write("lowerArms", () -> {
+            lift.lowerArms();
+            publish(YardChangeType.LIFT_MOVED);
+            publishAll(YardChangeType.BUNDLE_RESTACKED, lift.getBundlesOnLift());
+        });
     }
 
-    public List<Bundle> bundlesToMove() {
-        List<Bundle> bundleTolift = new ArrayList<>();
-        CenteredRectangle rectArms = new CenteredRectangle(lift.getArmsPosition().getX(), lift.getArmsPosition().getY(), lift.getArmsWidth(), lift.getArmsLength(), lift.angle);
-        List<Bundle> bundlesSorted = sortBundlesZ(getBundles());
-        Bundle bundleUnderAll = null;
-        for (Bundle bundle : bundlesSorted) {
-            CenteredRectangle rectangle1 = new CenteredRectangle(bundle);
-            if (GeomHelper.rectangleCollidesRectangle(rectArms, rectangle1)) {
-                if (bundle.getZ() >= lift.getArmsHeight()) {
-                    bundleUnderAll = bundle;
-                    break;
-                }
+    // One motion per lift, in the order of getLifts; the bundle checks run in parallel, then lifts whose moves
+    // would meet in a region are settled in lift order, and the accepted moves are made. Returns which lifts moved
+    public boolean[] tickLifts(List<LiftMotion> motions) {
+        return write("tickLifts", () -> {
+            prepareClearanceGrid();
+            LiftDto[] targets = new LiftDto[lifts.size()];
+            IntStream.range(0, Math.min(motions.size(), lifts.size())).parallel()
+                .forEach(i -> targets[i] = getFreeTarget(lifts.get(i), motions.get(i)));
+            boolean[] moved = resolveLiftConflicts(targets);
+            for (int i = 0; i < moved.length; i++) {
+                if (moved[i]) applyLiftMotion(lifts.get(i), motions.get(i));
             }
+            return moved;
+        });
+    }
+
+    // Pose after the motion, or null when the motion is empty or runs into a bundle
+    private LiftDto getFreeTarget(Lift movingLift, LiftMotion motion) {
+        LiftDto target = new LiftDto(movingLift);
+        Point2D increment = movingLift.getPositionIncrement();
+        switch (motion) {
+            case FORWARD:
+                target = target.withPosition(roundPosition(movingLift.getPosition().add(increment)));
+                break;
+            case BACKWARD:
+                target = target.withPosition(roundPosition(movingLift.getPosition().substract(increment)));
+                break;
+            case TURN_LEFT:
+            case TURN_RIGHT:
+                double angle = motion == LiftMotion.TURN_LEFT ? ConfigHelper.liftAngleIncrement : -ConfigHelper.liftAngleIncrement;
+                if (getMaxTurn(movingLift, angle) != angle) return null;
+                target = target.withAngle(movingLift.getAngle() + angle);
+                break;
+            case RISE_ARMS:
+                return target.withArmsHeight(movingLift.getArmsHeight() + ConfigHelper.armsHeightIncrement);
+            case LOWER_ARMS:
+                return target.withArmsHeight(Math.max(0, movingLift.getArmsHeight() - ConfigHelper.armsHeightIncrement));
+            default:
+                return null;
         }
-        if (bundleUnderAll == null) {
-            return bundleTolift;
+        return liftDtoCollidesAnyBundle(target) ? null : target;
+    }
+
+    private static Point2D roundPosition(Point2D position) {
+        return new Point2D(FixedPoint.round(position.getX()), FixedPoint.round(position.getY()));
+    }
+
+    // Only lifts sharing a region are compared; a move is refused if it meets a lift that has not moved or an accepted move
+    private boolean[] resolveLiftConflicts(LiftDto[] targets) {
+        int count = lifts.size();
+        List<List<CenteredRectangle>> currentFootprints = new ArrayList<>();
+        List<List<CenteredRectangle>> targetFootprints = new ArrayList<>();
+        Map<Long, List<Integer>> regions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Lift yardLift = lifts.get(i);
+            List<CenteredRectangle> current = getLiftFootprint(yardLift, new LiftDto(yardLift));
+            List<CenteredRectangle> target = targets[i] != null ? getLiftFootprint(yardLift, targets[i]) : current;
+            currentFootprints.add(current);
+            targetFootprints.add(target);
+            List<CenteredRectangle> swept = new ArrayList<>(current);
+            swept.addAll(target);
+            for (long region : getRegions(swept)) {
+                regions.computeIfAbsent(region, key -> new ArrayList<>()).add(i);
+            }
         }
-        Deque<Bundle> bundlesToCheck = new ArrayDeque<>();
-        bundlesToCheck.addLast(bundleUnderAll);
-        while (!bundlesToCheck.isEmpty()) {
-            Bundle check = bundlesToCheck.peekFirst();
-            Set<Bundle> exceptions = new HashSet<>();
-            exceptions.add(check);
-            List<Bundle> allColliding = getCollidingBundles(check, null);
-            for (Bundle bundle : allColliding) {
-                if (bundle.getZ() <= check.getZ()) {
-                    exceptions.add(bundle);
+        Map<Integer, Set<Integer>> neighbours = new HashMap<>();
+        for (List<Integer> region : regions.values()) {
+            for (int i : region) {
+                for (int j : region) {
+                    if (i != j) neighbours.computeIfAbsent(i, key -> new TreeSet<>()).add(j);
                 }
             }
-            List<Bundle> goodBundles = getCollidingBundles(check, exceptions);
-            for (Bundle bundle : goodBundles) {
-                if (!bundlesToCheck.contains(bundle)) {
-                    bundlesToCheck.add(bundle);
-
+        }
+        boolean[] accepted = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            if (targets[i] == null) continue;
+            accepted[i] = true;
+            for (int j : neighbours.getOrDefault(i, Collections.emptySet())) {
+                List<CenteredRectangle> other = j < i && accepted[j] ? targetFootprints.get(j) : currentFootprints.get(j);
+                if (footprintsCollide(targetFootprints.get(i), other)) {
+                    accepted[i] = false;
+                    break;
                 }
             }
-            if (!bundleTolift.contains(bundlesToCheck.getFirst())) {
-                bundleTolift.add(bundlesToCheck.getFirst());
-            }
-            bundlesToCheck.pop();
         }
-        return bundleTolift;
+        return accepted;
     }
 
-    private void movingBundles(List<Bundle> bundlesToMove, boolean movingForward) {
-        if (!bundlesToMove.isEmpty()) {
-            for (Bundle bundle : bundlesToMove) {
-                Point2D increment = new Point2D(ConfigHelper.liftPositionIncrement);
-                Point2D rotatedIncrement = GeomHelper.getRotatedVector(increment, lift.angle);
-                if (movingForward) bundle.setPosition(bundle.position.add(rotatedIncrement));
-                else bundle.setPosition(bundle.position.substract(rotatedIncrement));
+    private static List<Long> getRegions(List<CenteredRectangle> rectangles) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (CenteredRectangle rectangle : rectangles) {
+            for (Point2D point : rectangle.getPoints()) {
+                minX = Math.min(minX, point.getX());
+                minY = Math.min(minY, point.getY());
+                maxX = Math.max(maxX, point.getX());
+                maxY = Math.max(maxY, point.getY());
+            }
+        }
+        List<Long> regions = new ArrayList<>();
+        for (long x = (long) Math.floor(minX / LIFT_REGION_SIZE); x <= (long) Math.floor(maxX / LIFT_REGION_SIZE); x++) {
+            for (long y = (long) Math.floor(minY / LIFT_REGION_SIZE); y <= (long) Math.floor(maxY / LIFT_REGION_SIZE); y++) {
+                regions.add((x << 32) ^ (y & 0xffffffffL));
             }
         }
+        return regions;
     }
 
-    private void turnBundlesLeft(List<Bundle> bundlesToMove) {
-        if (!bundlesToMove.isEmpty()) {
-            for (Bundle bundle : bundlesToMove) {
-                double alpha = Math.toRadians(+5.0);
-                bundle.setPosition(changeBundleOnLift(bundle, alpha));
-                bundle.setAngleOnLift(bundle.getAngle() + 5.0);
-            }
+    private void applyLiftMotion(Lift movingLift, LiftMotion motion) {
+        publish(YardChangeType.LIFT_MOVED);
+        boolean armsMotion = motion == LiftMotion.RISE_ARMS || motion == LiftMotion.LOWER_ARMS;
+        publishAll(armsMotion ? YardChangeType.BUNDLE_RESTACKED : YardChangeType.BUNDLE_MOVED, movingLift.getBundlesOnLift());
+        switch (motion) {
+            case FORWARD:
+                movingLift.moveForward();
+                break;
+            case BACKWARD:
+                movingLift.moveBackward();
+                break;
+            case TURN_LEFT:
+                movingLift.turnLeft();
+                break;
+            case TURN_RIGHT:
+                movingLift.turnRight();
+                break;
+            case RISE_ARMS:
+                movingLift.riseArms();
+                break;
+            case LOWER_ARMS:
+                movingLift.lowerArms();
+                break;
         }
     }
 
-    private void turnBundlesRight(List<Bundle> bundlesToMove) {
-        if (!bundlesToMove.isEmpty()) {
-            for (Bundle bundle : bundlesToMove) {
-                double alpha = Math.toRadians(-5.0);
-                bundle.setPosition(changeBundleOnLift(bundle, alpha));
-                bundle.setAngleOnLift(bundle.getAngle() - 5.0);
+    public List<Bundle> bundlesToMove() {
+        return read(() -> {
+            CenteredRectangle rectArms = new CenteredRectangle(lift.getArmsPosition().getX(), lift.getArmsPosition().getY(), lift.getArmsWidth(), lift.getArmsLength(), lift.angle);
+            Bundle bundleUnderAll = null;
+            for (Bundle bundle : bundleStore.getNearBundles(rectArms.getX(), rectArms.getY(), rectArms.getWidth(), rectArms.getHeight())) {
+                if (bundle.isCarried() || bundle.getZ() < lift.getArmsHeight()) continue;
+                if (bundleUnderAll != null && BundleZOrder.ORDER.compare(bundle, bundleUnderAll) > 0) continue;
+                CenteredRectangle rectangle1 = new CenteredRectangle(bundle);
+                if (GeomHelper.rectangleCollidesRectangle(rectArms, rectangle1)) {
+                    bundleUnderAll = bundle;
+                }
             }
-        }
+            if (bundleUnderAll == null) {
+                return new ArrayList<Bundle>();
+            }
+            return getStack(bundleUnderAll);
+        });
     }
 
-    private Point2D changeBundleOnLift(Bundle bundle, double alpha) {
-        double x1 = lift.getPosition().getX();
-        double y1 = lift.getPosition().getY();
-        double x2 = bundle.getPosition().getX();
-        double y2 = bundle.getPosition().getY();
-        double xPos = (x2 - x1) * Math.cos(alpha) - (y2 - y1) * Math.sin(alpha) + x1;
-        double yPos = (x2 - x1) * Math.sin(alpha) + (y2 - y1) * Math.cos(alpha) + y1;
-        return (new Point2D(xPos, yPos));
+    // The bundle and everything the lift would raise with it
+    public List<Bundle> getStack(Bundle bundleUnderAll) {
+        return read(() -> {
+            List<Bundle> bundleTolift = new ArrayList<>();
+            Deque<Bundle> bundlesToCheck = new ArrayDeque<>();
+            bundlesToCheck.addLast(bundleUnderAll);
+            while (!bundlesToCheck.isEmpty()) {
+                Bundle check = bundlesToCheck.peekFirst();
+                Set<Bundle> exceptions = new HashSet<>();
+                exceptions.add(check);
+                List<Bundle> allColliding = getCollidingBundles(check, null);
+                for (Bundle bundle : allColliding) {
+                    if (bundle.getZ() <= check.getZ()) {
+                        exceptions.add(bundle);
+                    }
+                }
+                List<Bundle> goodBundles = getCollidingBundles(check, exceptions);
+                for (Bundle bundle : goodBundles) {
+                    if (!bundlesToCheck.contains(bundle)) {
+                        bundlesToCheck.add(bundle);
+
+                    }
+                }
+                if (!bundleTolift.contains(bundlesToCheck.getFirst())) {
+                    bundleTolift.add(bundlesToCheck.getFirst());
+                }
+                bundlesToCheck.pop();
+            }
+            return bundleTolift;
+        });
     }
 
     public void setLiftBundles() {
-        List<Bundle> bundlesToMove = bundlesToMove();
-        if (!bundlesToMove.isEmpty()) {
-            UndoRedo.addCurrentYard();
-            lift.setBundlesOnLift(bundlesToMove);
-        }
+        write("setLiftBundles", () -> {
+            List<Bundle> bundlesToMove = bundlesToMove();
+            if (!bundlesToMove.isEmpty()) {
+                addToHistory();
+                lift.setBundlesOnLift(bundlesToMove);
+                for (Bundle bundle : bundlesToMove) {
+                    clearanceGrid.remove(bundle);
+                }
+                publish(YardChangeType.LIFT_LOAD_CHANGED);
+            }
+        });
     }
 
     public void clearLiftBundles() {
-        if (!lift.getBundlesOnLift().isEmpty()) {
-            UndoRedo.addCurrentYard();
-            List<Bundle> sortedBundles = sortBundlesZ(lift.getBundlesOnLift());
-            for (Bundle bundle : sortedBundles) {
-                List<Bundle> exception = new ArrayList<>();
-                for (Bundle otherBundle : lift.getBundlesOnLift()) {
-                    if (otherBundle.getZ() > bundle.getZ()) {
-                        exception.add(otherBundle);
+        write("clearLiftBundles", () -> {
+            if (!lift.getBundlesOnLift().isEmpty()) {
+                addToHistory();
+                List<Bundle> sortedBundles = sortBundlesZ(lift.getBundlesOnLift());
+                for (Bundle bundle : sortedBundles) {
+                    List<Bundle> exception = new ArrayList<>();
+                    for (Bundle otherBundle : lift.getBundlesOnLift()) {
+                        if (otherBundle.getZ() > bundle.getZ()) {
+                            exception.add(otherBundle);
+                        }
                     }
+                    adjustBundleHeight(bundle, exception);
                 }
-                adjustBundleHeight(bundle, exception);
             }
-        }
-        lift.clearBundles();
+            List<Bundle> droppedBundles = new ArrayList<>(lift.getBundlesOnLift());
+            lift.clearBundles();
+            for (Bundle bundle : droppedBundles) {
+                clearanceGrid.add(bundle);
+            }
+            publish(YardChangeType.LIFT_LOAD_CHANGED);
+        });
     }
 }
 
@@ -0,0 +1,35 @@
+package domain.entities;
+
+import domain.dtos.BundleDto;
+import domain.dtos.LiftDto;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+public class YardSnapshot implements Iterable<BundleDto> {
+    private final List<BundleDto> bundles;
+    private final LiftDto lift;
+
+    YardSnapshot(List<BundleDto> bundles, LiftDto lift) {
+        this.bundles = Collections.unmodifiableList(bundles);
+        this.lift = lift;
+    }
+
+    public List<BundleDto> getBundles() {
+        return bundles;
+    }
+
+    public LiftDto getLift() {
+        return lift;
+    }
+
+    public int size() {
+        return bundles.size();
+    }
+
+    @Override
+    public Iterator<BundleDto> iterator() {
+        return bundles.iterator();
+    }
+}
@@ -0,0 +1,5 @@
+package domain.events;
+
+public interface IYardListener {
+    void onYardChanged(YardChangeSet changeSet);
+}
@@ -0,0 +1,25 @@
+package domain.events;
+
+import enums.YardChangeType;
+
+public class YardChange {
+    private final YardChangeType type;
+    private final String bundleId;
+
+    public YardChange(YardChangeType type, String bundleId) {
+        this.type = type;
+        this.bundleId = bundleId;
+    }
+
+    public YardChange(YardChangeType type) {
+        this(type, null);
+    }
+
+    public YardChangeType getType() {
+        return type;
+    }
+
+    public String getBundleId() {
+        return bundleId;
+    }
+}
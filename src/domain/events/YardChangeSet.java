@@ -0,0 +1,52 @@
+package domain.events;
+
+import enums.YardChangeType;
+
+import java.util.*;
+
+public class YardChangeSet {
+    private final List<YardChange> changes;
+
+    public YardChangeSet(List<YardChange> changes) {
+        this.changes = Collections.unmodifiableList(new ArrayList<>(changes));
+    }
+
+    public List<YardChange> getChanges() {
+        return changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public boolean contains(YardChangeType... types) {
+        for (YardChange change : changes) {
+            for (YardChangeType type : types) {
+                if (change.getType() == type) return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isYardReplaced() {
+        return contains(YardChangeType.YARD_REPLACED);
+    }
+
+    public Set<String> getBundleIds(YardChangeType... types) {
+        Set<String> bundleIds = new LinkedHashSet<>();
+        for (YardChange change : changes) {
+            if (change.getBundleId() == null) continue;
+            for (YardChangeType type : types) {
+                if (change.getType() == type) {
+                    bundleIds.add(change.getBundleId());
+                    break;
+                }
+            }
+        }
+        return bundleIds;
+    }
+
+    public Set<String> getBundleIds() {
+        return getBundleIds(YardChangeType.values());
+    }
+}
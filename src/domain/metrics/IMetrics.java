@@ -0,0 +1,14 @@
+package domain.metrics;
+
+import javax.management.MXBean;
+import java.util.List;
+import java.util.Map;
+
+@MXBean
+public interface IMetrics {
+    List<OperationStats> getOperations();
+
+    Map<String, Long> getCounters();
+
+    void reset();
+}
@@ -0,0 +1,142 @@
+package domain.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class MetricsRegistry implements IMetrics {
+    private static final String DUMP_HEADER = "time,operation,count,meanMillis,p50Millis,p90Millis,p99Millis,maxMillis";
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final int session;
+    private ObjectName objectName;
+    private ScheduledExecutorService dumpExecutor;
+
+    // The session tells apart the beans of the yards open at the same time
+    public MetricsRegistry(int session) {
+        this.session = session;
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public void increment(String name) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).increment();
+    }
+
+    public <T> T time(String name, Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } catch (RuntimeException e) {
+            increment(name + ".errors");
+            throw e;
+        } finally {
+            histogram(name).record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        List<OperationStats> operations = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+            operations.add(new OperationStats(entry.getKey(), entry.getValue()));
+        }
+        return operations;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().sum());
+        }
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+    }
+
+    public synchronized void registerMBean() {
+        if (objectName != null) return;
+        try {
+            ObjectName name = new ObjectName("virtubois:type=Metrics,session=" + session);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        objectName = null;
+    }
+
+    // Appends the current statistics of every operation to a CSV file at a fixed rate
+    public synchronized void startDump(File file, long periodSeconds) {
+        stopDump();
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> dump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopDump() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdown();
+            dumpExecutor = null;
+        }
+    }
+
+    public void dump(File file) {
+        List<String> lines = new ArrayList<>();
+        if (!file.exists()) {
+            lines.add(DUMP_HEADER);
+        }
+        String time = LocalDateTime.now().toString();
+        for (OperationStats stats : getOperations()) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                time, stats.getName(), stats.getCount(), stats.getMeanMillis(),
+                stats.getP50Millis(), stats.getP90Millis(), stats.getP99Millis(), stats.getMaxMillis()));
+        }
+        for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,,,,,", time, entry.getKey(), entry.getValue()));
+        }
+        try {
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
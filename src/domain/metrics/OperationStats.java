@@ -0,0 +1,54 @@
+package domain.metrics;
+
+import java.beans.ConstructorProperties;
+
+public class OperationStats {
+    private final String name;
+    private final long count;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    @ConstructorProperties({"name", "count", "meanMillis", "p50Millis", "p90Millis", "p99Millis", "maxMillis"})
+    public OperationStats(String name, long count, double meanMillis, double p50Millis, double p90Millis, double p99Millis, double maxMillis) {
+        this.name = name;
+        this.count = count;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public OperationStats(String name, LatencyHistogram histogram) {
+        this(
+            name,
+            histogram.getCount(),
+            toMillis(histogram.getMean()),
+            toMillis(histogram.getPercentile(50)),
+            toMillis(histogram.getPercentile(90)),
+            toMillis(histogram.getPercentile(99)),
+            toMillis(histogram.getMax())
+        );
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public String getName() { return name; }
+
+    public long getCount() { return count; }
+
+    public double getMeanMillis() { return meanMillis; }
+
+    public double getP50Millis() { return p50Millis; }
+
+    public double getP90Millis() { return p90Millis; }
+
+    public double getP99Millis() { return p99Millis; }
+
+    public double getMaxMillis() { return maxMillis; }
+}
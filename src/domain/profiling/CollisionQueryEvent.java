@@ -0,0 +1,21 @@
+package domain.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("virtubois.CollisionQuery")
+@Label("Collision Query")
+@Category({"VirtuBois", "Yard"})
+@StackTrace(false)
+public class CollisionQueryEvent extends jdk.jfr.Event {
+    @Label("Query")
+    public String query;
+
+    @Label("Candidates")
+    public int candidates;
+
+    @Label("Hits")
+    public int hits;
+}
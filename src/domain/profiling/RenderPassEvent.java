@@ -0,0 +1,19 @@
+package domain.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("virtubois.RenderPass")
+@Label("Render Pass")
+@Category({"VirtuBois", "Presentation"})
+public class RenderPassEvent extends jdk.jfr.Event {
+    @Label("View")
+    public String view;
+
+    @Label("Bundles")
+    public int bundleCount;
+
+    @Label("Created Presenters")
+    public int createdPresenters;
+}
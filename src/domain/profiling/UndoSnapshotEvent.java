@@ -0,0 +1,24 @@
+package domain.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("virtubois.UndoSnapshot")
+@Label("Undo Snapshot")
+@Category({"VirtuBois", "History"})
+public class UndoSnapshotEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Size")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+
+    @Label("Undo Size")
+    public int undoSize;
+
+    @Label("Redo Size")
+    public int redoSize;
+}
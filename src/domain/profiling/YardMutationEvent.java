@@ -0,0 +1,21 @@
+package domain.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("virtubois.YardMutation")
+@Label("Yard Mutation")
+@Category({"VirtuBois", "Yard"})
+@Description("A write to the yard, including the time spent waiting for the write lock")
+public class YardMutationEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Bundles")
+    public int bundleCount;
+
+    @Label("Pending Changes")
+    public int changeCount;
+}
@@ -0,0 +1,37 @@
+package domain.simulation;
+
+import domain.entities.Bundle;
+import helpers.ColorHelper;
+import helpers.ConfigHelper;
+import helpers.MathHelper;
+import helpers.Point2D;
+
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.UUID;
+
+// Bundles delivered at the dock, with the current bundle dimensions; everything is drawn from the seeded random
+class ArrivalGenerator extends PoissonGenerator {
+    private final SimulationConfig config;
+    private final Point2D dock;
+
+    ArrivalGenerator(Random random, SimulationConfig config, Point2D dock) {
+        super(random, config.arrivalsPerHour);
+        this.config = config;
+        this.dock = dock;
+    }
+
+    Bundle nextBundle(double time) {
+        Bundle bundle = new Bundle(
+            dock,
+            new UUID(random.nextLong(), random.nextLong()),
+            ColorHelper.hsbToRgb(random.nextDouble() * 360, ConfigHelper.bundleSaturation, ConfigHelper.bundleBrightness)
+        );
+        long seconds = (long) time;
+        bundle.setEssence(MathHelper.pickWeighted(random, config.essences, ConfigHelper.bundleEssence));
+        bundle.setDate(config.startDate.plusDays(seconds / 86400));
+        bundle.setTime(LocalTime.ofSecondOfDay(seconds % 86400));
+        bundle.setBarcode(String.format("%015x", random.nextLong() & 0xfffffffffffffffL));
+        return bundle;
+    }
+}
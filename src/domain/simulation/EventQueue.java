@@ -0,0 +1,30 @@
+package domain.simulation;
+
+import enums.SimulationEventType;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+// Events come out by time, and in scheduling order when they happen at the same time
+class EventQueue {
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>(
+        Comparator.comparingDouble((SimulationEvent event) -> event.time).thenComparingLong(event -> event.sequence)
+    );
+    private long sequence = 0;
+
+    public void schedule(double time, SimulationEventType type) {
+        schedule(time, type, null);
+    }
+
+    public void schedule(double time, SimulationEventType type, SimulatedLift lift) {
+        events.add(new SimulationEvent(time, sequence++, type, lift));
+    }
+
+    public SimulationEvent next() {
+        return events.poll();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
@@ -0,0 +1,17 @@
+package domain.simulation;
+
+import domain.entities.Bundle;
+
+// A putaway brings an arrived bundle in from the dock, a retrieval takes an ordered bundle out to it
+class Job {
+    final boolean putaway;
+    final Bundle bundle;
+    final double createdAt;
+    int movedBundles;
+
+    Job(boolean putaway, Bundle bundle, double createdAt) {
+        this.putaway = putaway;
+        this.bundle = bundle;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,50 @@
+package domain.simulation;
+
+import helpers.ConfigHelper;
+import helpers.Point2D;
+
+// Durations follow the lift controls: whole moveForward, turn and riseArms increments from ConfigHelper
+class LiftMotionModel {
+    private final double stepTime;
+    private final double turnStepTime;
+    private final double armsStepTime;
+    private final double handlingTime;
+
+    LiftMotionModel(SimulationConfig config) {
+        stepTime = ConfigHelper.liftPositionIncrement / config.travelSpeed;
+        turnStepTime = ConfigHelper.liftAngleIncrement / config.turnSpeed;
+        armsStepTime = ConfigHelper.armsHeightIncrement / config.armsSpeed;
+        handlingTime = config.handlingTime;
+    }
+
+    // Drives the lift to the position, heading straight at it, and sets the arms to the height
+    double moveTo(SimulatedLift lift, Point2D position, double armsHeight) {
+        double dx = position.getX() - lift.position.getX();
+        double dy = position.getY() - lift.position.getY();
+        double distance = Math.hypot(dx, dy);
+        double time = 0;
+        if (distance > ConfigHelper.liftPositionIncrement / 2) {
+            double heading = Math.toDegrees(Math.atan2(dy, dx));
+            double turn = Math.abs(normalize(heading - lift.angle));
+            time += Math.ceil(turn / ConfigHelper.liftAngleIncrement) * turnStepTime;
+            time += Math.ceil(distance / ConfigHelper.liftPositionIncrement) * stepTime;
+            lift.angle = heading;
+        }
+        time += Math.ceil(Math.abs(armsHeight - lift.armsHeight) / ConfigHelper.armsHeightIncrement) * armsStepTime;
+        lift.position = position;
+        lift.armsHeight = armsHeight;
+        return time;
+    }
+
+    // Picking up or setting down a load
+    double getHandlingTime() {
+        return handlingTime;
+    }
+
+    private static double normalize(double angle) {
+        double normalized = angle % 360;
+        if (normalized > 180) normalized -= 360;
+        if (normalized < -180) normalized += 360;
+        return normalized;
+    }
+}
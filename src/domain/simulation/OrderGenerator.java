@@ -0,0 +1,22 @@
+package domain.simulation;
+
+import domain.entities.Bundle;
+import domain.entities.Yard;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Orders pick any bundle of the yard that no job is already taking care of
+class OrderGenerator extends PoissonGenerator {
+    OrderGenerator(Random random, SimulationConfig config) {
+        super(random, config.ordersPerHour);
+    }
+
+    Bundle nextOrder(Yard yard, Set<Bundle> reserved) {
+        List<Bundle> bundles = yard.getBundles();
+        bundles.removeIf(reserved::contains);
+        if (bundles.isEmpty()) return null;
+        return bundles.get(random.nextInt(bundles.size()));
+    }
+}
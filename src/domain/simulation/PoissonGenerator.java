@@ -0,0 +1,19 @@
+package domain.simulation;
+
+import java.util.Random;
+
+// Exponential gaps between events, for a process with a given hourly rate
+abstract class PoissonGenerator {
+    protected final Random random;
+    private final double ratePerSecond;
+
+    PoissonGenerator(Random random, double ratePerHour) {
+        this.random = random;
+        this.ratePerSecond = ratePerHour / 3600;
+    }
+
+    double nextTime(double time) {
+        if (ratePerSecond <= 0) return Double.POSITIVE_INFINITY;
+        return time - Math.log(1 - random.nextDouble()) / ratePerSecond;
+    }
+}
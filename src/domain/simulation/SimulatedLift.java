@@ -0,0 +1,24 @@
+package domain.simulation;
+
+import helpers.ConfigHelper;
+import helpers.Point2D;
+
+// A lift of the fleet: its pose and the time it has spent working
+class SimulatedLift {
+    final int number;
+    Point2D position;
+    double angle = ConfigHelper.liftAngle;
+    double armsHeight = 0;
+    double busyTime = 0;
+    double busyUntil = 0;
+    Job job;
+
+    SimulatedLift(int number, Point2D position) {
+        this.number = number;
+        this.position = position;
+    }
+
+    boolean isIdle() {
+        return job == null;
+    }
+}
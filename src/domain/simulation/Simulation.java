@@ -0,0 +1,193 @@
+package domain.simulation;
+
+import domain.controllers.RetrievalPlanner;
+import domain.dtos.BundleMove;
+import domain.dtos.RetrievalPlan;
+import domain.dtos.RetrievalStep;
+import domain.dtos.SimulationReport;
+import domain.entities.Bundle;
+import domain.entities.Yard;
+import enums.RetrievalAction;
+import enums.SimulationEventType;
+import helpers.CenteredRectangle;
+import helpers.ConfigHelper;
+import helpers.Point2D;
+
+import java.util.*;
+
+// Jumps from event to event instead of ticking, so a simulated day runs in seconds; the given yard is modified
+public class Simulation {
+    private final Yard yard;
+    private final SimulationConfig config;
+    private final double duration;
+    private final Point2D dock;
+    private final EventQueue events = new EventQueue();
+    private final LiftMotionModel motion;
+    private final ArrivalGenerator arrivals;
+    private final OrderGenerator orders;
+    private final List<SimulatedLift> lifts = new ArrayList<>();
+    private final Deque<Job> waitingJobs = new ArrayDeque<>();
+    private final Set<Bundle> reservedBundles = new HashSet<>();
+    private final SimulationReport report = new SimulationReport();
+    private int startedJobs = 0;
+    private double totalQueueTime = 0;
+
+    public Simulation(Yard yard, SimulationConfig config) {
+        this.yard = yard;
+        this.config = config;
+        this.duration = config.hours * 3600;
+        this.dock = config.dock != null ? config.dock : getDefaultDock();
+        Random random = new Random(config.seed);
+        motion = new LiftMotionModel(config);
+        arrivals = new ArrivalGenerator(random, config, dock);
+        orders = new OrderGenerator(random, config);
+        for (int i = 0; i < config.lifts; i++) {
+            lifts.add(new SimulatedLift(i + 1, dock));
+        }
+    }
+
+    // Halfway along the west side of the yard, far enough out for a bundle to be set down
+    private Point2D getDefaultDock() {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Bundle bundle : yard.getBundles()) {
+            for (Point2D point : new CenteredRectangle(bundle).getPoints()) {
+                minX = Math.min(minX, point.getX());
+                minY = Math.min(minY, point.getY());
+                maxY = Math.max(maxY, point.getY());
+            }
+        }
+        if (minX == Double.POSITIVE_INFINITY) return new Point2D(0, 0);
+        double margin = 2 * Math.max(ConfigHelper.bundleWidth, ConfigHelper.bundleLength);
+        return new Point2D(minX - margin, (minY + maxY) / 2);
+    }
+
+    public SimulationReport run() {
+        long start = System.nanoTime();
+        events.schedule(arrivals.nextTime(0), SimulationEventType.ARRIVAL);
+        events.schedule(orders.nextTime(0), SimulationEventType.ORDER);
+        while (!events.isEmpty()) {
+            SimulationEvent event = events.next();
+            if (event.time > duration) break;
+            switch (event.type) {
+                case ARRIVAL:
+                    report.arrivals++;
+                    waitingJobs.add(new Job(true, arrivals.nextBundle(event.time), event.time));
+                    events.schedule(arrivals.nextTime(event.time), SimulationEventType.ARRIVAL);
+                    break;
+                case ORDER:
+                    Bundle ordered = orders.nextOrder(yard, reservedBundles);
+                    if (ordered != null) {
+                        report.orders++;
+                        reservedBundles.add(ordered);
+                        waitingJobs.add(new Job(false, ordered, event.time));
+                    }
+                    events.schedule(orders.nextTime(event.time), SimulationEventType.ORDER);
+                    break;
+                case JOB_DONE:
+                    finishJob(event.lift);
+                    break;
+            }
+            dispatch(event.time);
+        }
+
+        report.hours = config.hours;
+        report.pendingJobs = waitingJobs.size();
+        for (SimulatedLift lift : lifts) {
+            if (!lift.isIdle()) report.pendingJobs++;
+            double utilization = duration > 0 ? lift.busyTime / duration : 0;
+            report.liftUtilizations.add(utilization);
+            report.liftUtilization += utilization / lifts.size();
+        }
+        report.bundlesPerHour = config.hours > 0 ? (report.putaways + report.retrievals) / config.hours : 0;
+        report.meanQueueTime = startedJobs > 0 ? totalQueueTime / startedJobs : 0;
+        report.wallSeconds = (System.nanoTime() - start) / 1e9;
+        return report;
+    }
+
+    private void dispatch(double time) {
+        for (SimulatedLift lift : lifts) {
+            if (waitingJobs.isEmpty()) return;
+            if (!lift.isIdle()) continue;
+            Job job = waitingJobs.poll();
+            double queueTime = time - job.createdAt;
+            totalQueueTime += queueTime;
+            report.maxQueueTime = Math.max(report.maxQueueTime, queueTime);
+            startedJobs++;
+
+            double jobTime = job.putaway ? startPutaway(lift, job) : startRetrieval(lift, job);
+            if (jobTime < 0) {
+                report.failedJobs++;
+                reservedBundles.remove(job.bundle);
+                continue;
+            }
+            lift.job = job;
+            lift.busyUntil = time + jobTime;
+            lift.busyTime += Math.min(lift.busyUntil, duration) - time;
+            events.schedule(lift.busyUntil, SimulationEventType.JOB_DONE, lift);
+        }
+    }
+
+    // The bundle takes its place in the yard as soon as the job starts, so later jobs plan around it
+    private double startPutaway(SimulatedLift lift, Job job) {
+        Bundle bundle = job.bundle;
+        List<Point2D> placements = yard.findFreePlacements(
+            dock, bundle.getWidth(), bundle.getLength(), bundle.getAngle(), 1
+        );
+        if (placements.isEmpty()) return -1;
+        double time = motion.moveTo(lift, dock, 0) + motion.getHandlingTime();
+        time += motion.moveTo(lift, placements.get(0), 0) + motion.getHandlingTime();
+        bundle.setPosition(placements.get(0));
+        yard.addBundle(bundle);
+        reservedBundles.add(bundle);
+        return time;
+    }
+
+    // Rehandled stacks are set down when the job starts; the ordered bundle leaves the yard when it ends
+    private double startRetrieval(SimulatedLift lift, Job job) {
+        RetrievalPlan plan = yard.read(() -> new RetrievalPlanner(yard).plan(job.bundle.getId()));
+        if (plan == null || !plan.feasible) return -1;
+        double time = 0;
+        RetrievalStep pick = null;
+        for (RetrievalStep step : plan.steps) {
+            time += motion.moveTo(lift, step.position, step.z) + motion.getHandlingTime();
+            if (step.action == RetrievalAction.PICK) {
+                pick = step;
+            } else if (step.action == RetrievalAction.DROP) {
+                yard.applyMoves(getStackMoves(pick, step));
+                job.movedBundles += step.bundleIds.size();
+            }
+        }
+        time += motion.moveTo(lift, dock, 0) + motion.getHandlingTime();
+        return time;
+    }
+
+    private List<BundleMove> getStackMoves(RetrievalStep pick, RetrievalStep drop) {
+        double dx = drop.position.getX() - pick.position.getX();
+        double dy = drop.position.getY() - pick.position.getY();
+        double dz = drop.z - pick.z;
+        List<BundleMove> moves = new ArrayList<>();
+        for (String id : drop.bundleIds) {
+            Bundle bundle = yard.getBundle(id);
+            Point2D position = bundle.getPosition();
+            moves.add(new BundleMove(
+                id, new Point2D(position.getX() + dx, position.getY() + dy), bundle.getAngle(), bundle.getZ() + dz
+            ));
+        }
+        return moves;
+    }
+
+    private void finishJob(SimulatedLift lift) {
+        Job job = lift.job;
+        lift.job = null;
+        reservedBundles.remove(job.bundle);
+        if (job.putaway) {
+            report.putaways++;
+        } else {
+            yard.deleteBundle(job.bundle.getId());
+            report.retrievals++;
+            report.rehandledBundles += job.movedBundles;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package domain.simulation;
+
+import helpers.Point2D;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Speeds are in metres and degrees per second, times in seconds; without a dock, it is set beside the yard
+public class SimulationConfig {
+    public long seed = 1;
+    public double hours = 24;
+    public int lifts = 1;
+    public double arrivalsPerHour = 20;
+    public double ordersPerHour = 20;
+    public double travelSpeed = 2.0;
+    public double turnSpeed = 45.0;
+    public double armsSpeed = 0.25;
+    public double handlingTime = 15.0;
+    public Point2D dock;
+    // Production date of the first day's arrivals, fixed so that a seed always gives the same bundles
+    public LocalDate startDate = LocalDate.of(2019, 1, 1);
+    public Map<String, Double> essences = new LinkedHashMap<>();
+
+    public SimulationConfig() {
+        essences.put("Érable", 0.4);
+        essences.put("Chêne", 0.3);
+        essences.put("Pin", 0.2);
+        essences.put("Bouleau", 0.1);
+    }
+}
@@ -0,0 +1,17 @@
+package domain.simulation;
+
+import enums.SimulationEventType;
+
+class SimulationEvent {
+    final double time;
+    final long sequence;
+    final SimulationEventType type;
+    final SimulatedLift lift;
+
+    SimulationEvent(double time, long sequence, SimulationEventType type, SimulatedLift lift) {
+        this.time = time;
+        this.sequence = sequence;
+        this.type = type;
+        this.lift = lift;
+    }
+}
@@ -1,7 +0,0 @@
-package enums;
-
-public enum Comparison {
-    SMALLER, // !SMALLER = GREATER || EQUAL
-    GREATER, // !GREATER = SMALLER || EQUAL
-    EQUAL // !EQUAL = SMALLER || GREATER
-}
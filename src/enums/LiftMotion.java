@@ -0,0 +1,11 @@
+package enums;
+
+public enum LiftMotion {
+    NONE,
+    FORWARD,
+    BACKWARD,
+    TURN_LEFT,
+    TURN_RIGHT,
+    RISE_ARMS,
+    LOWER_ARMS
+}
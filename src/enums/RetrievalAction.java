@@ -0,0 +1,7 @@
+package enums;
+
+public enum RetrievalAction {
+    PICK,
+    DROP,
+    RETRIEVE
+}
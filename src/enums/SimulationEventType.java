@@ -0,0 +1,7 @@
+package enums;
+
+public enum SimulationEventType {
+    ARRIVAL,
+    ORDER,
+    JOB_DONE
+}
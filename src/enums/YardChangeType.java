@@ -0,0 +1,13 @@
+package enums;
+
+public enum YardChangeType {
+    BUNDLE_ADDED,
+    BUNDLE_REMOVED,
+    BUNDLE_MOVED,
+    BUNDLE_RESTACKED,
+    BUNDLE_MODIFIED,
+    LIFT_MOVED,
+    LIFT_LOAD_CHANGED,
+    HISTORY_CHANGED,
+    YARD_REPLACED
+}
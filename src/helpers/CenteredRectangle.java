@@ -2,19 +2,16 @@ package helpers;
 
 import domain.dtos.DrawableDto;
 import domain.entities.Drawable;
-import javafx.scene.shape.Rectangle;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class CenteredRectangle {
-    protected Rectangle rectangle;
-
     private double x;
     private double y;
     private double width;
     private double height;
-    private double scale;
+    private double rotate;
 
     public CenteredRectangle(Drawable drawable) {
         this(
@@ -39,16 +36,15 @@ public class CenteredRectangle {
     }
 
     public CenteredRectangle(double centerX, double centerY, double width, double height, double angle) {
-        rectangle = new Rectangle();
         setWidth(width);
         setHeight(height);
         setX(centerX);
         setY(centerY);
-        rectangle.setRotate(-angle);
+        this.rotate = -angle;
     }
 
-    public Rectangle getRectangle() {
-        return rectangle;
+    public double getRotate() {
+        return rotate;
     }
 
     public Point2D getPosition() {
@@ -66,12 +62,6 @@ public class CenteredRectangle {
 
     public void setX(double x) {
         this.x = x;
-        updateX();
-    }
-
-    private void updateX() {
-        rectangle.setWidth(width * scale);
-        rectangle.setX(x - width * scale / 2.0);
     }
 
     public double getY() {
@@ -80,18 +70,6 @@ public class CenteredRectangle {
 
     public void setY(double y) {
         this.y = y;
-        updateY();
-    }
-
-    private void updateY() {
-        rectangle.setHeight(height * scale);
-        rectangle.setY(y - height * scale / 2.0);
-    }
-
-    public void setScale(double scale) {
-        this.scale = scale;
-        updateX();
-        updateY();
     }
 
     public double getWidth() {
@@ -100,12 +78,14 @@ public class CenteredRectangle {
 
     public void setWidth(double width) {
         this.width = width;
-        updateX();
+    }
+
+    public double getHeight() {
+        return height;
     }
 
     public void setHeight(double height) {
         this.height = height;
-        updateY();
     }
 
     public double area() {
@@ -123,8 +103,8 @@ public class CenteredRectangle {
         points.add(new Point2D(x + width / 2.0, y - height / 2.0));
         points.add(new Point2D(x - width / 2.0, y - height / 2.0));
 
-        double cosAngle = Math.cos((rectangle.getRotate() * 2.0 * Math.PI) / 360.0);
-        double sinAngle = Math.sin((rectangle.getRotate() * 2.0 * Math.PI) / 360.0);
+        double cosAngle = Math.cos((rotate * 2.0 * Math.PI) / 360.0);
+        double sinAngle = Math.sin((rotate * 2.0 * Math.PI) / 360.0);
 
         for (int i = 0; i < points.size(); i++) {
             Point2D point = points.get(i).substract(getPosition());
@@ -1,42 +1,46 @@
 package helpers;
 
-import javafx.scene.paint.Color;
-
 import java.util.concurrent.ThreadLocalRandom;
 
 public class ColorHelper {
 
-    public static Color lastColor;
-
-    public static Color randomColor(double saturation, double brightness) {
-        double hue = ThreadLocalRandom.current().nextDouble(0, 360);
-        lastColor = Color.hsb(hue, saturation, brightness);
-        return lastColor;
-    }
+    private static double lastHue = -1;
 
-    public static Color nextHueRandomColor(double saturation, double brightness) {
-        if (lastColor == null) return randomColor(saturation, brightness);
-        double hue = lastColor.getHue() + ThreadLocalRandom.current().nextDouble(30, 60);
-        lastColor = Color.hsb(hue, saturation, brightness);
-        return lastColor;
+    public static int randomColor(double saturation, double brightness) {
+        lastHue = ThreadLocalRandom.current().nextDouble(0, 360);
+        return hsbToRgb(lastHue, saturation, brightness);
     }
 
-    public static Color setOpacity(Color color, double opacity) {
-        return new Color(color.getRed(), color.getGreen(), color.getBlue(), opacity);
+    public static int nextHueRandomColor(double saturation, double brightness) {
+        if (lastHue < 0) return randomColor(saturation, brightness);
+        lastHue = (lastHue + ThreadLocalRandom.current().nextDouble(30, 60)) % 360;
+        return hsbToRgb(lastHue, saturation, brightness);
     }
 
-    public static String toWeb(Color color) {
-        return String.format("#%02X%02X%02X",
-                (int) (color.getRed() * 255),
-                (int) (color.getGreen() * 255),
-                (int) (color.getBlue() * 255));
+    // Colors are packed as 0xRRGGBB
+    public static int hsbToRgb(double hue, double saturation, double brightness) {
+        double red = brightness;
+        double green = brightness;
+        double blue = brightness;
+        if (saturation > 0) {
+            double h = (hue % 360) / 60.0;
+            double f = h - Math.floor(h);
+            double p = brightness * (1.0 - saturation);
+            double q = brightness * (1.0 - saturation * f);
+            double t = brightness * (1.0 - saturation * (1.0 - f));
+            switch ((int) Math.floor(h)) {
+                case 0: red = brightness; green = t; blue = p; break;
+                case 1: red = q; green = brightness; blue = p; break;
+                case 2: red = p; green = brightness; blue = t; break;
+                case 3: red = p; green = q; blue = brightness; break;
+                case 4: red = t; green = p; blue = brightness; break;
+                default: red = brightness; green = p; blue = q; break;
+            }
+        }
+        return ((int) (red * 255) << 16) | ((int) (green * 255) << 8) | (int) (blue * 255);
     }
 
-    public static Color hex2Rgb(String colorStr) {
-        return new Color(
-                Integer.valueOf(colorStr.substring(1, 3), 16) / 255.0d,
-                Integer.valueOf(colorStr.substring(3, 5), 16) / 255.0d,
-                Integer.valueOf(colorStr.substring(5, 7), 16) / 255.0d,
-                1.0);
+    public static int webToRgb(String color) {
+        return Integer.parseInt(color.substring(1, 7), 16);
     }
 }
@@ -7,6 +7,7 @@ public class ConfigHelper {
 
     //GRID
     public static int gridSquareSize = 1;
+    public static final double clearanceCellSize = 2.0;
 
     // BUNDLE
     public static double bundleWidth = 2.0;
@@ -2,7 +2,6 @@ package helpers;
 
 import domain.dtos.BundleDto;
 import domain.entities.Bundle;
-import presentation.presenters.BundlePresenter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,12 +15,4 @@ public class Converter {
         }
         return dtos;
     }
-
-    public static List<BundlePresenter> fromBundleDtosToBundlePresenters(List<BundleDto> bundleDtos) {
-        List<BundlePresenter> presenters = new ArrayList<>();
-        for (BundleDto bundleDto : bundleDtos) {
-            presenters.add(new BundlePresenter(bundleDto));
-        }
-        return presenters;
-    }
 }
\ No newline at end of file
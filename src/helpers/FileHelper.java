@@ -1,7 +1,6 @@
 package helpers;
 
 import domain.controllers.LarmanController;
-import domain.dtos.BundleDto;
 import domain.entities.Yard;
 import enums.DialogAction;
 import javafx.scene.control.Alert;
@@ -12,12 +11,8 @@ import javafx.stage.Stage;
 import presentation.controllers.MainController;
 import presentation.presenters.YardPresenter;
 
-import java.io.*;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.util.*;
+import java.io.File;
+import java.util.Optional;
 
 public class FileHelper {
 
@@ -26,15 +21,14 @@ public class FileHelper {
     private static final String YARD_FILE_DESCRIPTOR = "SER";
     private static final String YARD_EXTENSION = ".ser";
     private static final String YARD_DEFAULT_FILENAME = "Yard.ser";
-    private static File lastFile = null;
-    private static boolean savedOnce = false;
 
     private static final String STL_FILE_DESCRIPTOR = "STL";
     private static final String STL_EXTENSION = ".stl";
     private static final String STL_DEFAULT_FILENAME = "Yard.stl";
-    private static File lastSTLFile = null;
 
-    public static void newFile(Stage stage, Yard yard) {
+    // The last files and whether the yard was saved are kept by the session
+    public static void newFile(Stage stage, LarmanController larmanController) {
+        Yard yard = larmanController.getYard();
         if (yard != null && yard.getBundles().size() != 0) {
             DialogAction result = FileHelper.popupConfirmationDialog(
                     "Enregistrer",
@@ -42,25 +36,24 @@ public class FileHelper {
             );
 
             if (result == DialogAction.YES)
-                saveFile(stage, yard);
+                saveFile(stage, larmanController);
             if (result == DialogAction.YES || result == DialogAction.NO) {
-                LarmanController.getInstance().clearYard();
-                newFile(stage);
+                larmanController.clearYard().thenRun(() -> loadNewFile(stage, larmanController));
             }
         }
         else {
-            newFile(stage);
+            loadNewFile(stage, larmanController);
         }
     }
 
-    public static void newFile(Stage stage) {
-        savedOnce = false;
-        JavafxHelper.loadView(stage, "Main", "Nouvelle Cour", true);
-        UndoRedo.getUndo().clear();
-        UndoRedo.getRedo().clear();
+    private static void loadNewFile(Stage stage, LarmanController larmanController) {
+        larmanController.setSavedOnce(false);
+        JavafxHelper.loadView(stage, "Main", "Nouvelle Cour", true, larmanController);
+        larmanController.clearHistory();
     }
 
-    public static void openFile(Stage stage, Yard yard) {
+    public static void openFile(Stage stage, LarmanController larmanController) {
+        Yard yard = larmanController.getYard();
         if (yard != null && yard.getBundles().size() != 0) {
             DialogAction result = FileHelper.popupConfirmationDialog(
                     "Enregistrer",
@@ -68,88 +61,56 @@ public class FileHelper {
             );
 
             if (result == DialogAction.YES)
-                saveFile(stage, yard);
+                saveFile(stage, larmanController);
             if (result == DialogAction.YES || result == DialogAction.NO) {
-                openFile(stage);
+                chooseFileToOpen(stage, larmanController);
             }
         }
         else {
-            openFile(stage);
+            chooseFileToOpen(stage, larmanController);
         }
     }
 
-    public static void openFile(Stage stage) {
-        FileChooser fileChooser = initFileChooser("Ouvrir", YARD_EXTENSION, YARD_FILE_DESCRIPTOR, YARD_DEFAULT_FILENAME, lastFile);
+    private static void chooseFileToOpen(Stage stage, LarmanController larmanController) {
+        FileChooser fileChooser = initFileChooser("Ouvrir", YARD_EXTENSION, YARD_FILE_DESCRIPTOR, YARD_DEFAULT_FILENAME, larmanController.getLastFile());
         File file = fileChooser.showOpenDialog(stage);
         if (file != null) {
-            FileInputStream fileInputStream;
-            ObjectInputStream objectInputStream;
-            try {
-                fileInputStream = new FileInputStream(file);
-                objectInputStream = new ObjectInputStream(fileInputStream);
-                Yard yardInit = (Yard) objectInputStream.readObject();
-                LarmanController.getInstance().setYard(yardInit);
-                JavafxHelper.loadView(stage, "Main", file.getName(), true);
-                lastFile = file;
-                savedOnce = true;
-            } catch (IOException | ClassNotFoundException e) {
-                e.printStackTrace();
-            }
+            larmanController.openYard(file).thenAccept(opened -> {
+                if (opened) {
+                    JavafxHelper.loadView(stage, "Main", file.getName(), true, larmanController);
+                    larmanController.setLastFile(file);
+                    larmanController.setSavedOnce(true);
+                }
+            });
         }
     }
 
-    public static void saveFile(Stage stage, Yard yard) {
-        if (!savedOnce) {
-            saveFileAs(stage, yard);
+    public static void saveFile(Stage stage, LarmanController larmanController) {
+        if (!larmanController.isSavedOnce()) {
+            saveFileAs(stage, larmanController);
         }
         else {
-            writeFile(yard, lastFile);
-        }
-    }
-
-    private static void writeFile(Object object, File file) {
-        try {
-            FileOutputStream fileOutputStream = new FileOutputStream(file);
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
-            objectOutputStream.writeObject(object);
-            objectOutputStream.flush();
-            objectOutputStream.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private static void writeTextFile(String text, File file) {
-        try (BufferedWriter writer = Files.newBufferedWriter(
-                    Paths.get(file.getPath()),
-                    Charset.forName("UTF-8"),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING
-        )) {
-            writer.write(text);
-        }
-        catch (Exception e) {
-            e.printStackTrace();
+            larmanController.saveYard(larmanController.getLastFile());
         }
     }
 
-    public static void saveFileAs(Stage stage, Yard yard) {
-        FileChooser fileChooser = initFileChooser("Enregistrer sous", YARD_EXTENSION, YARD_FILE_DESCRIPTOR, YARD_DEFAULT_FILENAME, lastFile);
+    public static void saveFileAs(Stage stage, LarmanController larmanController) {
+        FileChooser fileChooser = initFileChooser("Enregistrer sous", YARD_EXTENSION, YARD_FILE_DESCRIPTOR, YARD_DEFAULT_FILENAME, larmanController.getLastFile());
         File file = fileChooser.showSaveDialog(stage);
         if (file != null) {
-            lastFile = ensureExtension(file, YARD_EXTENSION);
-            savedOnce = true;
-            saveFile(stage, yard);
+            larmanController.setLastFile(ensureExtension(file, YARD_EXTENSION));
+            larmanController.setSavedOnce(true);
+            saveFile(stage, larmanController);
         }
     }
 
-    public static void saveSTLFile(Stage stage, List<BundleDto> bundleDtos) {
-        String stl = STLCreator.generateSTL(bundleDtos);
-        FileChooser fileChooser = initFileChooser("Exporter en 3D...", STL_EXTENSION, STL_FILE_DESCRIPTOR, STL_DEFAULT_FILENAME, lastSTLFile);
+    public static void saveSTLFile(Stage stage, LarmanController larmanController) {
+        FileChooser fileChooser = initFileChooser("Exporter en 3D...", STL_EXTENSION, STL_FILE_DESCRIPTOR, STL_DEFAULT_FILENAME, larmanController.getLastSTLFile());
         File file = fileChooser.showSaveDialog(stage);
         if (file != null) {
-            lastSTLFile = ensureExtension(file, STL_EXTENSION);
-            writeTextFile(stl, lastSTLFile);
+            File stlFile = ensureExtension(file, STL_EXTENSION);
+            larmanController.setLastSTLFile(stlFile);
+            larmanController.exportSTL(stlFile);
         }
     }
 
@@ -0,0 +1,25 @@
+package helpers;
+
+// Lengths in whole centimeters and angles in hundredths of a degree, the precision the yard has always been rounded to
+public class FixedPoint {
+    public static final int SCALE = 100;
+    public static final int FULL_TURN = 360 * SCALE;
+
+    public static int toFixed(double value) {
+        return (int) Math.round(value * SCALE);
+    }
+
+    public static double toDouble(int value) {
+        return value / (double) SCALE;
+    }
+
+    // Same result as MathHelper.round(value, 2)
+    public static double round(double value) {
+        return Math.round(value * SCALE) / (double) SCALE;
+    }
+
+    public static int toFixedAngle(double angle) {
+        int fixedAngle = toFixed(angle) % FULL_TURN;
+        return fixedAngle < 0 ? fixedAngle + FULL_TURN : fixedAngle;
+    }
+}
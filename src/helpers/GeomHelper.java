@@ -1,9 +1,13 @@
 package helpers;
 
 import java.awt.geom.Line2D;
+import java.util.ArrayList;
 import java.util.List;
 
 public class GeomHelper {
+    private static final double SWEEP_EPSILON = 1e-9;
+    private static final double SWEEP_CONTACT = 1e-3;
+    private static final int SWEEP_ITERATIONS = 1000;
 
     public static boolean pointIsInsideRectangle(Point2D point, CenteredRectangle rectangle) {
         List<Point2D> points = rectangle.getPoints();
@@ -62,6 +66,103 @@ public class GeomHelper {
         return collides;
     }
 
+    // Distance the moving rectangle travels along the unit direction before touching the obstacle, infinite when it never does
+    public static double getSweptDistance(CenteredRectangle moving, Point2D direction, CenteredRectangle obstacle) {
+        List<Point2D> movingPoints = moving.getPoints();
+        List<Point2D> obstaclePoints = obstacle.getPoints();
+        List<Point2D> axes = new ArrayList<>();
+        addEdgeNormals(movingPoints, axes);
+        addEdgeNormals(obstaclePoints, axes);
+        double enter = Double.NEGATIVE_INFINITY;
+        double exit = Double.POSITIVE_INFINITY;
+        for (Point2D axis : axes) {
+            double[] movingProjection = project(movingPoints, axis);
+            double[] obstacleProjection = project(obstaclePoints, axis);
+            double speed = direction.getX() * axis.getX() + direction.getY() * axis.getY();
+            if (Math.abs(speed) < SWEEP_EPSILON) {
+                if (movingProjection[1] < obstacleProjection[0] || obstacleProjection[1] < movingProjection[0]) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                continue;
+            }
+            double contact = (obstacleProjection[0] - movingProjection[1]) / speed;
+            double separation = (obstacleProjection[1] - movingProjection[0]) / speed;
+            enter = Math.max(enter, Math.min(contact, separation));
+            exit = Math.min(exit, Math.max(contact, separation));
+            if (enter > exit) return Double.POSITIVE_INFINITY;
+        }
+        if (exit < 0) return Double.POSITIVE_INFINITY;
+        return Math.max(0, enter);
+    }
+
+    // Largest part of the turn the rectangle makes around its center before touching the obstacle (conservative advancement)
+    public static double getSweptRotation(CenteredRectangle rotating, double angle, CenteredRectangle obstacle) {
+        return getSweptRotation(rotating, rotating.getPosition(), angle, obstacle);
+    }
+
+    // Same, for a rectangle turning around a pivot, like a load on the arms of a turning lift
+    public static double getSweptRotation(CenteredRectangle rotating, Point2D pivot, double angle, CenteredRectangle obstacle) {
+        double dx = rotating.getX() - pivot.getX();
+        double dy = rotating.getY() - pivot.getY();
+        double radius = Math.hypot(dx, dy) + Math.hypot(rotating.getWidth(), rotating.getHeight()) / 2;
+        double direction = Math.signum(angle);
+        double limit = Math.abs(angle);
+        double turned = 0;
+        for (int i = 0; i < SWEEP_ITERATIONS; i++) {
+            double radians = Math.toRadians(direction * turned);
+            Point2D center = new Point2D(
+                pivot.getX() + dx * Math.cos(radians) - dy * Math.sin(radians),
+                pivot.getY() + dx * Math.sin(radians) + dy * Math.cos(radians)
+            );
+            CenteredRectangle turnedRectangle = new CenteredRectangle(
+                center, rotating.getWidth(), rotating.getHeight(), rotating.getRotate() + direction * turned
+            );
+            double separation = getSeparation(turnedRectangle, obstacle);
+            if (separation <= SWEEP_CONTACT) break;
+            if (turned == limit) return angle;
+            turned = Math.min(limit, turned + Math.toDegrees(separation / radius));
+        }
+        return direction * turned;
+    }
+
+    // Largest gap between the projections of the two rectangles, a lower bound of their distance and negative when they overlap
+    public static double getSeparation(CenteredRectangle rectangle1, CenteredRectangle rectangle2) {
+        List<Point2D> points1 = rectangle1.getPoints();
+        List<Point2D> points2 = rectangle2.getPoints();
+        List<Point2D> axes = new ArrayList<>();
+        addEdgeNormals(points1, axes);
+        addEdgeNormals(points2, axes);
+        double separation = Double.NEGATIVE_INFINITY;
+        for (Point2D axis : axes) {
+            double length = Math.hypot(axis.getX(), axis.getY());
+            if (length < SWEEP_EPSILON) continue;
+            double[] projection1 = project(points1, axis);
+            double[] projection2 = project(points2, axis);
+            double gap = Math.max(projection2[0] - projection1[1], projection1[0] - projection2[1]) / length;
+            separation = Math.max(separation, gap);
+        }
+        return separation;
+    }
+
+    private static void addEdgeNormals(List<Point2D> points, List<Point2D> axes) {
+        for (int i = 0; i < 2; i++) {
+            Point2D start = points.get(i);
+            Point2D end = points.get(i + 1);
+            axes.add(new Point2D(start.getY() - end.getY(), end.getX() - start.getX()));
+        }
+    }
+
+    private static double[] project(List<Point2D> points, Point2D axis) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Point2D point : points) {
+            double projection = point.getX() * axis.getX() + point.getY() * axis.getY();
+            min = Math.min(min, projection);
+            max = Math.max(max, projection);
+        }
+        return new double[] {min, max};
+    }
+
     public static Point2D invertY(Point2D point) {
         return new Point2D(point.getX(), -point.getY());
     }
@@ -1,24 +1,28 @@
 package helpers;
 
+import domain.controllers.LarmanController;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.TextField;
+import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import presentation.Main;
 import presentation.controllers.IController;
 
 public class JavafxHelper {
 
-    public static void loadView(Stage stage, String viewName, String title, boolean maximised) {
-        setupScene(stage, viewName);
+    // The view's controller works on the given session
+    public static void loadView(Stage stage, String viewName, String title, boolean maximised, LarmanController larmanController) {
+        setupScene(stage, viewName, larmanController);
         setupStage(stage, title, maximised, false);
     }
 
-    private static IController setupScene(Stage stage, String viewName) {
+    private static IController setupScene(Stage stage, String viewName, LarmanController larmanController) {
         FXMLLoader loader = new FXMLLoader(Main.class.getResource("views/" + viewName + ".fxml"));
+        loader.setControllerFactory(type -> createController(type, larmanController));
         Parent page;
 
         try {
@@ -40,6 +44,19 @@ public class JavafxHelper {
         return controller;
     }
 
+    // Set before the view is loaded, so that the controller has its session in initialize
+    private static Object createController(Class<?> type, LarmanController larmanController) {
+        try {
+            Object controller = type.getDeclaredConstructor().newInstance();
+            if (controller instanceof IController) {
+                ((IController) controller).setLarmanController(larmanController);
+            }
+            return controller;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private static void setupStage(Stage stage, String title, boolean maximised, boolean waitForClosing) {
         stage.setTitle("Virtubois - " + title);
         stage.centerOnScreen();
@@ -53,7 +70,7 @@ public class JavafxHelper {
 
     public static void popupView(String viewName, String title, boolean maximised, boolean waitForClosing) {
         Stage stage = new Stage();
-        setupScene(stage, viewName);
+        setupScene(stage, viewName, null);
         setupStage(stage, title, maximised, waitForClosing);
     }
 
@@ -63,7 +80,7 @@ public class JavafxHelper {
 
     public static void popupGrid() {
         Stage stage = new Stage();
-        setupScene(stage, "Grid");
+        setupScene(stage, "Grid", null);
         setupStage(stage, "Éditer la grille", false, true);
     }
 
@@ -108,4 +125,12 @@ public class JavafxHelper {
             }
         });
     }
+
+    public static Color setOpacity(Color color, double opacity) {
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), opacity);
+    }
+
+    public static Color rgbToColor(int rgb) {
+        return Color.rgb((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
 }
@@ -1,19 +1,29 @@
 package helpers;
 
-import enums.Comparison;
+import java.util.Map;
+import java.util.Random;
 
 public class MathHelper {
-    private static final double DELTA = 0.00001;
+    private static final double[] ROUND_FACTORS = {1, 10, 100, 1000, 10000, 100000, 1000000};
 
     public static double round(double value, int decimals) {
-        double roundFactor = Math.pow(10, decimals);
+        double roundFactor = decimals >= 0 && decimals < ROUND_FACTORS.length ? ROUND_FACTORS[decimals] : Math.pow(10, decimals);
         return Math.round(value * roundFactor) / roundFactor;
     }
 
-    public static Comparison compareDoubles(double d1, double d2) {
-        double diff = d1 - d2;
-        if (Math.abs(diff) < DELTA) return Comparison.EQUAL;
-        else if (diff < 0) return Comparison.SMALLER;
-        else return Comparison.GREATER;
+    // A key drawn in proportion to its weight, the fallback when there is none
+    public static String pickWeighted(Random random, Map<String, Double> weights, String fallback) {
+        double total = 0;
+        for (double weight : weights.values()) {
+            total += weight;
+        }
+        double pick = random.nextDouble() * total;
+        String picked = fallback;
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            picked = entry.getKey();
+            pick -= entry.getValue();
+            if (pick < 0) break;
+        }
+        return picked;
     }
 }
@@ -39,11 +39,11 @@ public class Point2D implements Serializable {
     }
 
     public Point2D add(Point2D point) {
-        return new Point2D(MathHelper.round(x + point.getX(),2), MathHelper.round(y + point.getY(),2));
+        return new Point2D(FixedPoint.round(x + point.getX()), FixedPoint.round(y + point.getY()));
     }
 
     public Point2D substract(Point2D point) {
-        return new Point2D(MathHelper.round(x - point.getX(),2), MathHelper.round(y - point.getY(),2));
+        return new Point2D(FixedPoint.round(x - point.getX()), FixedPoint.round(y - point.getY()));
 
     }
 
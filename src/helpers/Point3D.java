@@ -0,0 +1,51 @@
+package helpers;
+
+public class Point3D {
+    private final double x;
+    private final double y;
+    private final double z;
+
+    public Point3D(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public Point3D(Point2D point, double z) {
+        this(point.getX(), point.getY(), z);
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public Point3D subtract(Point3D point) {
+        return new Point3D(x - point.x, y - point.y, z - point.z);
+    }
+
+    public Point3D crossProduct(Point3D point) {
+        return new Point3D(
+                y * point.z - z * point.y,
+                z * point.x - x * point.z,
+                x * point.y - y * point.x
+        );
+    }
+
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    public Point3D normalize() {
+        double magnitude = magnitude();
+        if (magnitude == 0) return new Point3D(0, 0, 0);
+        return new Point3D(x / magnitude, y / magnitude, z / magnitude);
+    }
+}
@@ -1,25 +1,22 @@
 package helpers;
 
 import domain.dtos.BundleDto;
-import javafx.geometry.Point3D;
-import presentation.presenters.BundlePresenter;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class STLCreator {
 
-    private static List<Point3D> generateBundlePoints3D(BundlePresenter bundle) {
-        List<Point2D> bundlePoints2D = bundle.getPoints();
+    private static List<Point3D> generateBundlePoints3D(BundleDto bundle) {
+        CenteredRectangle rectangle = new CenteredRectangle(bundle.position.getX(), bundle.position.getY(), bundle.width, bundle.length, bundle.angle);
+        List<Point2D> bundlePoints2D = rectangle.getPoints();
         List<Point3D> bundlePoints3D = new ArrayList<>();
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(0).getX(), bundlePoints2D.get(0).getY(), bundle.dto.z));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(1).getX(), bundlePoints2D.get(1).getY(), bundle.dto.z));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(2).getX(), bundlePoints2D.get(2).getY(), bundle.dto.z));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(3).getX(), bundlePoints2D.get(3).getY(), bundle.dto.z));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(0).getX(), bundlePoints2D.get(0).getY(), bundle.dto.topZ));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(1).getX(), bundlePoints2D.get(1).getY(), bundle.dto.topZ));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(2).getX(), bundlePoints2D.get(2).getY(), bundle.dto.topZ));
-        bundlePoints3D.add(new Point3D(bundlePoints2D.get(3).getX(), bundlePoints2D.get(3).getY(), bundle.dto.topZ));
+        for (Point2D point : bundlePoints2D) {
+            bundlePoints3D.add(new Point3D(point, bundle.z));
+        }
+        for (Point2D point : bundlePoints2D) {
+            bundlePoints3D.add(new Point3D(point, bundle.topZ));
+        }
         return bundlePoints3D;
     }
 
@@ -49,10 +46,9 @@ public class STLCreator {
     }
 
     public static String generateSTL(List<BundleDto> bundleDtos) {
-        List<BundlePresenter> bundles = Converter.fromBundleDtosToBundlePresenters(bundleDtos);
         StringBuilder sb = new StringBuilder();
         sb.append("solid stl\n");
-        for (BundlePresenter bundle : bundles) {
+        for (BundleDto bundle : bundleDtos) {
             List<Point3D> bundlePoints3D = generateBundlePoints3D(bundle);
 
             for (List<Point3D> triangle : generateBundleTriangles(bundlePoints3D)) {
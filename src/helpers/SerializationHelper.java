@@ -0,0 +1,73 @@
+package helpers;
+
+import domain.entities.Yard;
+import domain.profiling.FileIOEvent;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class SerializationHelper {
+
+    public static byte[] serializeYard(Yard yard) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+        objectOutputStream.writeObject(yard);
+        objectOutputStream.close();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    public static Yard deserializeYard(byte[] serializedYard) throws IOException, ClassNotFoundException {
+        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(serializedYard);
+        ObjectInputStream objectInputStream = new ObjectInputStream(byteArrayInputStream);
+        return (Yard) objectInputStream.readObject();
+    }
+
+    public static Yard readYard(File file) throws IOException, ClassNotFoundException {
+        FileIOEvent event = new FileIOEvent();
+        event.begin();
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return (Yard) objectInputStream.readObject();
+        } finally {
+            commitEvent(event, "readYard", file);
+        }
+    }
+
+    public static void writeYard(Yard yard, File file) throws IOException {
+        FileIOEvent event = new FileIOEvent();
+        event.begin();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            objectOutputStream.writeObject(yard);
+            objectOutputStream.flush();
+        } finally {
+            commitEvent(event, "writeYard", file);
+        }
+    }
+
+    public static void writeTextFile(String text, File file) throws IOException {
+        FileIOEvent event = new FileIOEvent();
+        event.begin();
+        try (BufferedWriter writer = Files.newBufferedWriter(
+                    Paths.get(file.getPath()),
+                    Charset.forName("UTF-8"),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            writer.write(text);
+        } finally {
+            commitEvent(event, "writeTextFile", file);
+        }
+    }
+
+    private static void commitEvent(FileIOEvent event, String operation, File file) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.commit();
+        }
+    }
+}
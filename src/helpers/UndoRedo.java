@@ -2,30 +2,35 @@ package helpers;
 
 import domain.controllers.LarmanController;
 import domain.entities.Yard;
+import domain.profiling.UndoSnapshotEvent;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
+// The undo history of one session, holding snapshots of the session's yard
 public class UndoRedo {
-    private static Deque<byte[]> undo = new ArrayDeque<>();
-    private static Deque<byte[]> redo = new ArrayDeque<>();
+    private final LarmanController larmanController;
+    private Deque<byte[]> undo = new ArrayDeque<>();
+    private Deque<byte[]> redo = new ArrayDeque<>();
 
-    private static int sizeMax = 50;
+    private int sizeMax = 50;
 
-    private UndoRedo() {}
+    public UndoRedo(LarmanController larmanController) {
+        this.larmanController = larmanController;
+    }
 
-    public static void addCurrentYard() {
+    public void addCurrentYard() {
         try {
             if (sizeMax > 0) {
                 if (undo.size() == sizeMax) {
                     undo.removeLast();
                 }
-                Yard prevYard = LarmanController.getInstance().getYard();
-                undo.push(serializeYard(prevYard));
+                UndoSnapshotEvent event = new UndoSnapshotEvent();
+                event.begin();
+                Yard prevYard = larmanController.getYard();
+                byte[] snapshot = SerializationHelper.serializeYard(prevYard);
+                undo.push(snapshot);
+                commitEvent(event, "snapshot", snapshot.length);
             }
             redo.clear();
         }
@@ -34,61 +39,67 @@ public class UndoRedo {
         }
     }
 
-    public static Yard undo() throws Exception {
+    public Yard undo() throws Exception {
         if (!undo.isEmpty()) {
-            Yard newYard = deserializeYard(undo.pop());
-            Yard oldYard = LarmanController.getInstance().getYard();
-            redo.push(serializeYard(oldYard));
+            UndoSnapshotEvent event = new UndoSnapshotEvent();
+            event.begin();
+            byte[] snapshot = undo.pop();
+            Yard newYard = SerializationHelper.deserializeYard(snapshot);
+            Yard oldYard = larmanController.getYard();
+            redo.push(SerializationHelper.serializeYard(oldYard));
+            commitEvent(event, "undo", snapshot.length);
             return newYard;
         } else {
-            return LarmanController.getInstance().getYard();
+            return larmanController.getYard();
         }
     }
 
-    public static void undoUndo() {undo.removeFirst();}
+    public void undoUndo() {undo.removeFirst();}
 
-    public static int getUndoSize() {
+    public int getUndoSize() {
         return undo.size();
     }
 
-    public static int getRedoSize() {
+    public int getRedoSize() {
         return redo.size();
     }
 
-    public static Yard redo() throws Exception {
+    public Yard redo() throws Exception {
         if (!redo.isEmpty()) {
-            Yard newYard = deserializeYard(redo.pop());
-            Yard oldYard = LarmanController.getInstance().getYard();
-            undo.push(serializeYard(oldYard));
+            UndoSnapshotEvent event = new UndoSnapshotEvent();
+            event.begin();
+            byte[] snapshot = redo.pop();
+            Yard newYard = SerializationHelper.deserializeYard(snapshot);
+            Yard oldYard = larmanController.getYard();
+            undo.push(SerializationHelper.serializeYard(oldYard));
+            commitEvent(event, "redo", snapshot.length);
             return newYard;
         } else {
-            return LarmanController.getInstance().getYard();
+            return larmanController.getYard();
             
         }
     }
 
-    public static Deque<byte[]> getUndo(){ return undo;}
-
-    public static Deque<byte[]> getRedo(){ return redo;}
-
-    private static byte[] serializeYard(Yard yard) throws Exception {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
-        objectOutputStream.writeObject(yard);
-        objectOutputStream.close();
-        return byteArrayOutputStream.toByteArray();
+    private void commitEvent(UndoSnapshotEvent event, String operation, long bytes) {
+        event.operation = operation;
+        event.bytes = bytes;
+        event.undoSize = undo.size();
+        event.redoSize = redo.size();
+        event.commit();
     }
 
-    private static Yard deserializeYard(byte[] serializedYard) throws Exception {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(serializedYard);
-        ObjectInputStream objectInputStream = new ObjectInputStream(byteArrayInputStream);
-        Yard yard = (Yard) objectInputStream.readObject();
-        return yard;
+    public void clear() {
+        undo.clear();
+        redo.clear();
     }
 
-    public static void undoAction(){
+    public Deque<byte[]> getUndo(){ return undo;}
+
+    public Deque<byte[]> getRedo(){ return redo;}
+
+    public void undoAction(){
         try{
-            LarmanController.getInstance().setYard(UndoRedo.undo());
+            larmanController.setYard(undo());
             redo.removeFirst();
         } catch (Exception e){
             e.printStackTrace();
@@ -0,0 +1,75 @@
+package helpers;
+
+import domain.entities.Bundle;
+import domain.entities.Lift;
+import domain.entities.Yard;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.UUID;
+
+// The same layout and seed always give the same yard, ids and colors included
+public class YardGenerator {
+    private static final LocalDate FIRST_PRODUCTION_DATE = LocalDate.of(2019, 1, 1);
+
+    public static Yard generate(YardLayout layout) {
+        Random random = new Random(layout.seed);
+        Yard yard = new Yard();
+        int bundleCount = 0;
+        double y = layout.origin.getY();
+        for (int row = 0; row < layout.rows; row++) {
+            if (row > 0) {
+                y += layout.bundleLength + (row % layout.rowsPerBlock == 0 ? layout.aisleWidth : layout.stackGap);
+            }
+            for (int column = 0; column < layout.stacksPerRow; column++) {
+                Point2D position = new Point2D(layout.origin.getX() + column * (layout.bundleWidth + layout.stackGap), y);
+                double angle = layout.angleJitter * (2 * random.nextDouble() - 1);
+                int stackHeight = layout.minStackHeight + random.nextInt(layout.maxStackHeight - layout.minStackHeight + 1);
+                double z = 0;
+                for (int level = 0; level < stackHeight; level++) {
+                    if (layout.maxBundles > 0 && bundleCount == layout.maxBundles) {
+                        return placeLift(yard, layout);
+                    }
+                    Bundle bundle = createBundle(random, layout, position, angle, ++bundleCount);
+                    bundle.setZ(z);
+                    z += bundle.getHeight();
+                    yard.addBundle(bundle);
+                }
+            }
+        }
+        return placeLift(yard, layout);
+    }
+
+    public static void write(YardLayout layout, File file) throws IOException {
+        SerializationHelper.writeYard(generate(layout), file);
+    }
+
+    private static Bundle createBundle(Random random, YardLayout layout, Point2D position, double angle, int number) {
+        Bundle bundle = new Bundle(
+            position,
+            new UUID(random.nextLong(), random.nextLong()),
+            ColorHelper.hsbToRgb(random.nextDouble() * 360, ConfigHelper.bundleSaturation, ConfigHelper.bundleBrightness)
+        );
+        bundle.setWidth(layout.bundleWidth);
+        bundle.setLength(layout.bundleLength);
+        bundle.setHeight(layout.bundleHeight);
+        bundle.setAngle(angle);
+        bundle.setEssence(MathHelper.pickWeighted(random, layout.essences, ConfigHelper.bundleEssence));
+        bundle.setBarcode(String.format("%09d", number));
+        bundle.setDate(FIRST_PRODUCTION_DATE.plusDays(random.nextInt(365)));
+        bundle.setTime(LocalTime.ofSecondOfDay(random.nextInt(24 * 60 * 60)));
+        return bundle;
+    }
+
+
+    private static Yard placeLift(Yard yard, YardLayout layout) {
+        Lift lift = yard.getLift();
+        lift.setAngle(layout.liftAngle);
+        lift.setPosition(layout.liftPosition);
+        yard.takeChanges();
+        return yard;
+    }
+}
@@ -0,0 +1,31 @@
+package helpers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class YardLayout {
+    public long seed = 1;
+    public int rows = 10;
+    public int stacksPerRow = 20;
+    public int rowsPerBlock = 2;
+    public double aisleWidth = 4.0;
+    public double stackGap = 0.3;
+    public int minStackHeight = 1;
+    public int maxStackHeight = 5;
+    public double angleJitter = 0.0;
+    public double bundleWidth = 2.0;
+    public double bundleLength = 1.0;
+    public double bundleHeight = 0.5;
+    public Map<String, Double> essences = new LinkedHashMap<>();
+    public Point2D origin = new Point2D(5, 5);
+    public Point2D liftPosition = new Point2D(2, 5);
+    public double liftAngle = 0.0;
+    public int maxBundles = 0;
+
+    public YardLayout() {
+        essences.put("Érable", 0.4);
+        essences.put("Pin", 0.25);
+        essences.put("Chêne", 0.2);
+        essences.put("Épinette", 0.15);
+    }
+}
@@ -0,0 +1,97 @@
+package presentation;
+
+import domain.controllers.BatchController;
+import domain.dtos.YardReport;
+import helpers.MathHelper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Validates, exports and re-saves every yard of a directory without starting the editor
+public class Batch {
+    private static final String YARD_EXTENSION = ".ser";
+    private static final String USAGE = "Usage : Batch <dossier des cours> [--threads <nombre>] [--out <dossier>]";
+
+    public static void main(String... args) throws InterruptedException {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        File inputDirectory = new File(args[0]);
+        File outputDirectory = inputDirectory;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length - 1; i += 2) {
+            if (args[i].equals("--threads")) {
+                threads = Math.max(1, Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--out")) {
+                outputDirectory = new File(args[i + 1]);
+            } else {
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+
+        File[] yardFiles = inputDirectory.listFiles((directory, name) -> name.endsWith(YARD_EXTENSION));
+        if (yardFiles == null) {
+            System.err.println("Dossier introuvable : " + inputDirectory);
+            System.exit(1);
+        }
+        Arrays.sort(yardFiles);
+        if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+            System.err.println("Impossible de créer le dossier : " + outputDirectory);
+            System.exit(1);
+        }
+
+        BatchController batchController = new BatchController();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<YardReport>> reports = new ArrayList<>();
+        File output = outputDirectory;
+        for (File yardFile : yardFiles) {
+            reports.add(executor.submit(() -> batchController.processYard(yardFile, output)));
+        }
+
+        YardReport total = new YardReport("Total");
+        int failures = 0;
+        for (int i = 0; i < yardFiles.length; i++) {
+            try {
+                YardReport report = reports.get(i).get();
+                System.out.println(report.name + " : " + report.bundleCount + " paquets, "
+                    + report.problems.size() + " problème(s)");
+                total.add(report);
+            } catch (ExecutionException e) {
+                failures++;
+                System.err.println(yardFiles[i].getName() + " : échec");
+                e.getCause().printStackTrace();
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        printReport(total);
+        System.out.println(total.yardCount + " cours traitées, " + failures + " échec(s) en "
+            + MathHelper.round(seconds, 2) + " s (" + MathHelper.round(yardFiles.length / seconds, 2) + " cours/s, "
+            + MathHelper.round(total.bundleCount / seconds, 2) + " paquets/s, " + threads + " fils)");
+        System.exit(failures == 0 ? 0 : 2);
+    }
+
+    private static void printReport(YardReport report) {
+        System.out.println();
+        System.out.println("Paquets : " + report.bundleCount);
+        System.out.println("Volume total : " + MathHelper.round(report.totalVolume, 2));
+        System.out.println("Hauteur maximale : " + MathHelper.round(report.maxHeight, 2));
+        for (Map.Entry<String, Integer> entry : report.bundlesPerEssence.entrySet()) {
+            System.out.println("  " + entry.getKey() + " : " + entry.getValue());
+        }
+        for (String problem : report.problems) {
+            System.out.println("Problème - " + problem);
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package presentation;
 
+import domain.controllers.LarmanController;
 import helpers.JavafxHelper;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
+import java.io.File;
+
 public class Main extends Application {
+  private static final long METRICS_DUMP_PERIOD_SECONDS = 60;
 
   @Override
   public void start(Stage stage) {
-    JavafxHelper.loadView(stage, "Start", "Démarrer un projet", false);
+    LarmanController larmanController = new LarmanController();
+    larmanController.setUiExecutor(Platform::runLater);
+    larmanController.getMetrics().registerMBean();
+    larmanController.getMetrics().startDump(
+        new File(System.getProperty("user.home"), "virtubois-metrics.csv"),
+        METRICS_DUMP_PERIOD_SECONDS
+    );
+    JavafxHelper.loadView(stage, "Start", "Démarrer un projet", false, larmanController);
   }
 
   public static void main(String ...args) {
@@ -0,0 +1,71 @@
+package presentation;
+
+import domain.dtos.SimulationReport;
+import domain.entities.Yard;
+import domain.simulation.Simulation;
+import domain.simulation.SimulationConfig;
+import helpers.MathHelper;
+import helpers.SerializationHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Simulates the arrivals and shipments of a yard without starting the editor
+public class Simulate {
+    private static final String USAGE = "Usage : Simulate <cour> [--heures <nombre>] [--chariots <nombre>] "
+        + "[--arrivees <par heure>] [--commandes <par heure>] [--graine <nombre>] [--debut <aaaa-mm-jj>]";
+
+    public static void main(String... args) {
+        if (args.length == 0) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        SimulationConfig config = new SimulationConfig();
+        for (int i = 1; i < args.length - 1; i += 2) {
+            if (args[i].equals("--heures")) {
+                config.hours = Double.parseDouble(args[i + 1]);
+            } else if (args[i].equals("--chariots")) {
+                config.lifts = Math.max(1, Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--arrivees")) {
+                config.arrivalsPerHour = Double.parseDouble(args[i + 1]);
+            } else if (args[i].equals("--commandes")) {
+                config.ordersPerHour = Double.parseDouble(args[i + 1]);
+            } else if (args[i].equals("--graine")) {
+                config.seed = Long.parseLong(args[i + 1]);
+            } else if (args[i].equals("--debut")) {
+                config.startDate = LocalDate.parse(args[i + 1]);
+            } else {
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+
+        Yard yard = null;
+        try {
+            yard = SerializationHelper.readYard(new File(args[0]));
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Cour illisible : " + args[0]);
+            e.printStackTrace();
+            System.exit(1);
+        }
+        int initialBundles = yard.getBundles().size();
+        SimulationReport report = new Simulation(yard, config).run();
+
+        System.out.println(MathHelper.round(report.hours, 2) + " h simulées en " + MathHelper.round(report.wallSeconds, 2)
+            + " s (" + MathHelper.round(report.hours * 3600 / Math.max(report.wallSeconds, 1e-9), 0) + " fois le temps réel)");
+        System.out.println("Paquets : " + initialBundles + " au départ, " + yard.getBundles().size() + " à la fin");
+        System.out.println("Arrivées : " + report.arrivals + ", rangements : " + report.putaways);
+        System.out.println("Commandes : " + report.orders + ", expéditions : " + report.retrievals
+            + ", paquets déplacés : " + report.rehandledBundles);
+        System.out.println("Tâches échouées : " + report.failedJobs + ", en attente : " + report.pendingJobs);
+        System.out.println("Débit : " + MathHelper.round(report.bundlesPerHour, 2) + " paquets/h");
+        System.out.println("Attente : " + MathHelper.round(report.meanQueueTime, 1) + " s en moyenne, "
+            + MathHelper.round(report.maxQueueTime, 1) + " s au plus");
+        System.out.println("Utilisation des chariots : " + MathHelper.round(report.liftUtilization * 100, 1) + " %");
+        for (int i = 0; i < report.liftUtilizations.size(); i++) {
+            System.out.println("  Chariot " + (i + 1) + " : " + MathHelper.round(report.liftUtilizations.get(i) * 100, 1) + " %");
+        }
+        System.exit(0);
+    }
+}
@@ -10,14 +10,14 @@ public abstract class BaseController implements IController {
     protected Stage stage;
     public LarmanController larmanController;
 
-    public BaseController() {
-        larmanController = LarmanController.getInstance();
-    }
-
     public void setStage(Stage stage) {
         this.stage = stage;
     }
 
+    public void setLarmanController(LarmanController larmanController) {
+        this.larmanController = larmanController;
+    }
+
     public void quit(ActionEvent actionEvent) {
         JavafxHelper.quitApplication();
     }
@@ -1,7 +1,10 @@
 package presentation.controllers;
 
+import domain.controllers.LarmanController;
 import javafx.stage.Stage;
 
 public interface IController {
     void setStage(Stage stage);
+
+    void setLarmanController(LarmanController larmanController);
 }
@@ -3,7 +3,10 @@ package presentation.controllers;
 import domain.dtos.BundleDto;
 import domain.dtos.LiftDto;
 import domain.entities.Bundle;
+import domain.events.IYardListener;
+import domain.events.YardChangeSet;
 import enums.EditorMode;
+import enums.YardChangeType;
 import helpers.*;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -27,8 +30,9 @@ import presentation.presenters.YardPresenter;
 
 import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public class MainController extends BaseController {
+public class MainController extends BaseController implements IYardListener {
 
     public ObjectProperty<EditorMode> editorMode;
     public ToggleGroup editorModeToggleGroup;
@@ -39,7 +43,8 @@ public class MainController extends BaseController {
     private ElevationViewPresenter3D elevationViewPresenter3D;
     private YardPresenter yardPresenter;
 
-    private List<BundleDto> observableBundleList;
+    private ObservableList<BundleDto> inventoryBundles;
+    private FilteredList<BundleDto> filteredInventoryBundles;
     private BundleDto selectedBundle;
 
     @FXML
@@ -132,6 +137,9 @@ public class MainController extends BaseController {
     public void initialize() {
         root.setFocusTraversable(false);
         editorMode = new SimpleObjectProperty<>();
+        // This view replaces the previous one, which must stop receiving yard changes
+        larmanController.clearYardListeners();
+        larmanController.addYardListener(this);
 
         initTableView();
         initInventorySearchBar();
@@ -141,6 +149,7 @@ public class MainController extends BaseController {
         initElevationView();
         initBundleInfo();
         initLiftInfo();
+        addTableViewBundles(larmanController.getBundles());
 
         dropShadow = new DropShadow();
         dropShadow.setRadius(5.0);
@@ -216,99 +225,87 @@ public class MainController extends BaseController {
         JavafxHelper.addStringToDoubleConverter(liftYValue, 0.0, null, null);
         JavafxHelper.addStringToDoubleConverter(liftAngleValue, 0.0, 0.0, 359.0);
         JavafxHelper.addStringToDoubleConverter(liftScaleValue, 1.0, 0.01, null);
-        armsHeightValue.setText(String.valueOf(larmanController.getYard().getLift().getArmsHeight()));
-        liftHeightValue.setText(String.valueOf(larmanController.getYard().getLift().getHeight()));
-        armsXValue.setText(String.valueOf(larmanController.getYard().getLift().getArmsPosition().getX()));
-        armsYValue.setText(String.valueOf(larmanController.getYard().getLift().getArmsPosition().getY()));
-        liftXValue.setText(String.valueOf(larmanController.getYard().getLift().getPosition().getX()));
-        liftYValue.setText(String.valueOf(larmanController.getYard().getLift().getPosition().getY()));
-        liftAngleValue.setText(String.valueOf(larmanController.getYard().getLift().getAngle()));
-        liftScaleValue.setText(String.valueOf(larmanController.getYard().getLift().getScale()));
+        updateLiftInfo(larmanController.getLift());
         initLiftTextFieldsHandlers();
     }
 
+    // The fields are refreshed once the domain has made or refused the change, not from the lift as it was before
     private void initLiftTextFieldsHandlers() {
         liftAngleValue.setOnKeyPressed(event -> {
 
             if(event.getCode().equals(KeyCode.ENTER)){
+                CompletableFuture<Void> modified = CompletableFuture.completedFuture(null);
                 if(!liftAngleValue.getText().isEmpty() && !liftAngleValue.getText().equals("-") && !liftAngleValue.getText().equals(".") && !liftAngleValue.getText().equals("-.")){
                     if(larmanController.getLiftBundles().isEmpty()) {
-                        LiftDto liftDto = new LiftDto(larmanController.getYard().getLift());
-                        liftDto.angle = Double.parseDouble(liftAngleValue.getText());
-                        larmanController.modifyLiftProperties(liftDto);
-                        yardPresenter.draw();
+                        LiftDto liftDto = larmanController.getLift();
+                        modified = larmanController.modifyLiftProperties(liftDto.withAngle(Double.parseDouble(liftAngleValue.getText())));
                     }
                 }
-                updateLiftInfo(larmanController.getLift());
+                modified.thenRun(() -> updateLiftInfo(larmanController.getLift()));
             }
         });
 
         armsHeightValue.setOnKeyPressed(event -> {
             if (event.getCode().equals(KeyCode.ENTER)) {
+                CompletableFuture<Void> modified = CompletableFuture.completedFuture(null);
                 if (!armsHeightValue.getText().isEmpty() && !armsHeightValue.getText().equals("-") && !armsHeightValue.getText().equals(".") && !armsHeightValue.getText().equals("-.")) {
                     LiftDto liftDto = larmanController.getLift();
-                    liftDto.armsHeight = Double.parseDouble(armsHeightValue.getText());
-                    larmanController.modifyLiftProperties(liftDto);
-                    yardPresenter.draw();
+                    modified = larmanController.modifyLiftProperties(liftDto.withArmsHeight(Double.parseDouble(armsHeightValue.getText())));
 
                 }
-                updateLiftInfo(larmanController.getLift());
+                modified.thenRun(() -> updateLiftInfo(larmanController.getLift()));
             }
         });
 
         liftHeightValue.setOnKeyPressed(event -> {
             if (event.getCode().equals(KeyCode.ENTER)) {
+                CompletableFuture<Void> modified = CompletableFuture.completedFuture(null);
                 if(!liftHeightValue.getText().isEmpty() && !liftHeightValue.getText().equals("-") && !liftHeightValue.getText().equals(".") && !liftHeightValue.getText().equals("-.")) {
                     if(larmanController.getLiftBundles().isEmpty()) {
                         LiftDto liftDto = larmanController.getLift();
-                        liftDto.height = Double.parseDouble(liftHeightValue.getText());
-                        larmanController.modifyLiftProperties(liftDto);
-                        yardPresenter.draw();
+                        modified = larmanController.modifyLiftProperties(liftDto.withHeight(Double.parseDouble(liftHeightValue.getText())));
                     }
                 }
-                updateLiftInfo(larmanController.getLift());
+                modified.thenRun(() -> updateLiftInfo(larmanController.getLift()));
             }
         });
 
         liftYValue.setOnKeyPressed(event -> {
             if (event.getCode().equals(KeyCode.ENTER)) {
+                CompletableFuture<Void> modified = CompletableFuture.completedFuture(null);
                 if(!liftYValue.getText().isEmpty() && !liftYValue.getText().equals("-") && !liftYValue.getText().equals(".") && !liftYValue.getText().equals("-.")) {
                     if(larmanController.getLiftBundles().isEmpty()) {
                         LiftDto liftDto = larmanController.getLift();
-                        liftDto.position = new Point2D(liftDto.position.getX(), Double.parseDouble(liftYValue.getText()));
-                        larmanController.modifyLiftProperties(liftDto);
-                        yardPresenter.draw();
+                        modified = larmanController.modifyLiftProperties(liftDto.withPosition(new Point2D(liftDto.position.getX(), Double.parseDouble(liftYValue.getText()))));
                     }
                 }
-                updateLiftInfo(larmanController.getLift());
+                modified.thenRun(() -> updateLiftInfo(larmanController.getLift()));
             }
         });
 
         liftXValue.setOnKeyPressed(event -> {
             if (event.getCode().equals(KeyCode.ENTER)) {
+                CompletableFuture<Void> modified = CompletableFuture.completedFuture(null);
                 if(!liftXValue.getText().isEmpty() && !liftXValue.getText().equals("-") && !liftXValue.getText().equals(".") && !liftXValue.getText().equals("-.")) {
                     if(larmanController.getLiftBundles().isEmpty()) {
                         LiftDto liftDto = larmanController.getLift();
-                        liftDto.position = new Point2D(Double.parseDouble(liftXValue.getText()), liftDto.position.getY());
-                        larmanController.modifyLiftProperties(liftDto);
-                        yardPresenter.draw();
+                        modified = larmanController.modifyLiftProperties(liftDto.withPosition(new Point2D(Double.parseDouble(liftXValue.getText()), liftDto.position.getY())));
                     }
                 }
-                updateLiftInfo(larmanController.getLift());
+                modified.thenRun(() -> updateLiftInfo(larmanController.getLift()));
             }
         });
 
         liftScaleValue.setOnKeyPressed(event -> {
             if(event.getCode().equals(KeyCode.ENTER)){
+                CompletableFuture<Void> modified = CompletableFuture.completedFuture(null);
                 if(!liftScaleValue.getText().isEmpty() && !liftScaleValue.getText().equals("-") && !liftScaleValue.getText().equals(".") && !liftScaleValue.getText().equals("-.")){
                     if(larmanController.getLiftBundles().isEmpty()) {
                         LiftDto liftDto = larmanController.getLift();
-                        liftDto.scale = Double.parseDouble(liftScaleValue.getText());
-                        larmanController.modifyLiftProperties(liftDto);
-                        yardPresenter.draw();
+                        modified = larmanController.modifyLiftProperties(liftDto.withScale(Double.parseDouble(liftScaleValue.getText())));
                     }
                 }
-                updateLiftInfo(larmanController.getLift());
+                modified.thenRun(() -> updateLiftInfo(larmanController.getLift()));
             }
         });
     }
@@ -320,11 +317,8 @@ public class MainController extends BaseController {
                 if (selectedBundle != null) {
                     if (!bundleBarcodeValue.getText().isEmpty()) {
                         if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                            selectedBundle.barcode = bundleBarcodeValue.getText();
-                            larmanController.modifyBundleProperties(selectedBundle);
-                            //elevationViewPresenter.setBundles(selectedBundle);
-                            setFocusedBundleElevView(selectedBundle);
-                            yardPresenter.draw();
+                            BundleDto bundleDto = selectedBundle.withBarcode(bundleBarcodeValue.getText());
+                            larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         }
                     }
                     updateBundleInfo(selectedBundle);
@@ -338,10 +332,8 @@ public class MainController extends BaseController {
                     if (selectedBundle != null) {
                         if (!bundleLengthValue.getText().isEmpty() && !bundleLengthValue.getText().equals("-") && !bundleLengthValue.getText().equals(".") && !bundleLengthValue.getText().equals("-.") && Double.parseDouble(bundleLengthValue.getText()) != 0.0) {
                             if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                                selectedBundle.length = Double.parseDouble(bundleLengthValue.getText());
-                                larmanController.modifyBundleProperties(selectedBundle);
-                                setFocusedBundleElevView(selectedBundle);
-                                yardPresenter.draw();
+                                BundleDto bundleDto = selectedBundle.withLength(Double.parseDouble(bundleLengthValue.getText()));
+                                larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                             }
                         }
                         updateBundleInfo(selectedBundle);
@@ -357,10 +349,8 @@ public class MainController extends BaseController {
                     if (selectedBundle != null) {
                         if (!bundleWidthValue.getText().isEmpty() && !bundleWidthValue.getText().equals("-") && !bundleWidthValue.getText().equals(".") && !bundleWidthValue.getText().equals("-.") && Double.parseDouble(bundleWidthValue.getText()) != 0.0) {
                             if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                                selectedBundle.width = Double.parseDouble(bundleWidthValue.getText());
-                                larmanController.modifyBundleProperties(selectedBundle);
-                                setFocusedBundleElevView(selectedBundle);
-                                yardPresenter.draw();
+                                BundleDto bundleDto = selectedBundle.withWidth(Double.parseDouble(bundleWidthValue.getText()));
+                                larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                             }
                         }
                         updateBundleInfo(selectedBundle);
@@ -375,10 +365,8 @@ public class MainController extends BaseController {
                     if (selectedBundle != null) {
                         if (!bundleHeightValue.getText().isEmpty() && !bundleHeightValue.getText().equals("-") && !bundleHeightValue.getText().equals(".") && !bundleHeightValue.getText().equals("-.") && Double.parseDouble(bundleHeightValue.getText()) != 0.0) {
                             if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                                selectedBundle.height = Double.parseDouble(bundleHeightValue.getText());
-                                larmanController.modifyBundleProperties(selectedBundle);
-                                yardPresenter.draw();
-                                setFocusedBundleElevView(selectedBundle);
+                                BundleDto bundleDto = selectedBundle.withHeight(Double.parseDouble(bundleHeightValue.getText()));
+                                larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                             }
                         }
                         updateBundleInfo(selectedBundle);
@@ -392,10 +380,8 @@ public class MainController extends BaseController {
                 if (bundleDateValue.getValue() != null) {
                     if (bundleDateValue.getValue() != selectedBundle.date) {
                         if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                            selectedBundle.date = bundleDateValue.getValue();
-                            larmanController.modifyBundleProperties(selectedBundle);
-                            setFocusedBundleElevView(selectedBundle);
-                            yardPresenter.draw();
+                            BundleDto bundleDto = selectedBundle.withDate(bundleDateValue.getValue());
+                            larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                             updateBundleInfo(selectedBundle);
                         }
                     }
@@ -407,10 +393,8 @@ public class MainController extends BaseController {
             if (event.getCode().equals(KeyCode.ENTER)) {
                 if (selectedBundle != null) {
                     if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                        selectedBundle.time = LocalTime.of(bundleHourValue.getValue(), bundleMinuteValue.getValue());
-                        larmanController.modifyBundleProperties(selectedBundle);
-                        setFocusedBundleElevView(selectedBundle);
-                        yardPresenter.draw();
+                        BundleDto bundleDto = selectedBundle.withTime(LocalTime.of(bundleHourValue.getValue(), bundleMinuteValue.getValue()));
+                        larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         updateBundleInfo(selectedBundle);
                     }
                 }
@@ -421,10 +405,8 @@ public class MainController extends BaseController {
             if (event.getCode().equals(KeyCode.ENTER)) {
                 if (selectedBundle != null) {
                     if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                        selectedBundle.time = LocalTime.of(bundleHourValue.getValue(), bundleMinuteValue.getValue());
-                        larmanController.modifyBundleProperties(selectedBundle);
-                        setFocusedBundleElevView(selectedBundle);
-                        yardPresenter.draw();
+                        BundleDto bundleDto = selectedBundle.withTime(LocalTime.of(bundleHourValue.getValue(), bundleMinuteValue.getValue()));
+                        larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         updateBundleInfo(selectedBundle);
                     }
                 }
@@ -436,10 +418,8 @@ public class MainController extends BaseController {
                 if (selectedBundle != null) {
                     if (!bundleEssenceValue.getText().isEmpty()) {
                         if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                            selectedBundle.essence = bundleEssenceValue.getText();
-                            larmanController.modifyBundleProperties(selectedBundle);
-                            setFocusedBundleElevView(selectedBundle);
-                            yardPresenter.draw();
+                            BundleDto bundleDto = selectedBundle.withEssence(bundleEssenceValue.getText());
+                            larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         }
                     }
                     updateBundleInfo(selectedBundle);
@@ -452,10 +432,8 @@ public class MainController extends BaseController {
                 if (selectedBundle != null) {
                     if (!bundlePlankSizeValue1.getText().isEmpty() && !bundlePlankSizeValue2.getText().isEmpty()) {
                         if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                            selectedBundle.plankSize = bundlePlankSizeValue1.getText() + "x" + bundlePlankSizeValue2.getText();
-                            larmanController.modifyBundleProperties(selectedBundle);
-                            setFocusedBundleElevView(selectedBundle);
-                            yardPresenter.draw();
+                            BundleDto bundleDto = selectedBundle.withPlankSize(bundlePlankSizeValue1.getText() + "x" + bundlePlankSizeValue2.getText());
+                            larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         }
                     }
                     updateBundleInfo(selectedBundle);
@@ -468,10 +446,8 @@ public class MainController extends BaseController {
                 if (selectedBundle != null) {
                     if (!bundlePlankSizeValue1.getText().isEmpty() && !bundlePlankSizeValue2.getText().isEmpty()) {
                         if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                            selectedBundle.plankSize = bundlePlankSizeValue1.getText() + "x" + bundlePlankSizeValue2.getText();
-                            larmanController.modifyBundleProperties(selectedBundle);
-                            yardPresenter.draw();
-                            setFocusedBundleElevView(selectedBundle);
+                            BundleDto bundleDto = selectedBundle.withPlankSize(bundlePlankSizeValue1.getText() + "x" + bundlePlankSizeValue2.getText());
+                            larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         }
                     }
                     updateBundleInfo(selectedBundle);
@@ -485,10 +461,9 @@ public class MainController extends BaseController {
                     if (selectedBundle != null) {
                         if (!bundleXPosValue.getText().isEmpty() && !bundleXPosValue.getText().equals("-") && !bundleXPosValue.getText().equals(".") && !bundleXPosValue.getText().equals("-.")) {
                             if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                                selectedBundle.position.setX(Double.parseDouble(bundleXPosValue.getText()));
-                                larmanController.modifyBundlePosition(selectedBundle.id, selectedBundle.position);
-                                yardPresenter.draw();
-                                setFocusedBundleElevView(selectedBundle);
+                                String id = selectedBundle.id;
+                                larmanController.modifyBundlePosition(id, new Point2D(Double.parseDouble(bundleXPosValue.getText()), selectedBundle.position.getY()))
+                                    .thenRun(() -> refreshSelectedBundle(id));
                             }
                         }
                         updateBundleInfo(selectedBundle);
@@ -503,10 +478,9 @@ public class MainController extends BaseController {
                     if (selectedBundle != null) {
                         if (!bundleYPosValue.getText().isEmpty() && !bundleYPosValue.getText().equals("-") && !bundleYPosValue.getText().equals(".") && !bundleYPosValue.getText().equals("-.")) {
                             if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                                selectedBundle.position.setY(Double.parseDouble(bundleYPosValue.getText()));
-                                larmanController.modifyBundlePosition(selectedBundle.id, selectedBundle.position);
-                                setFocusedBundleElevView(selectedBundle);
-                                yardPresenter.draw();
+                                String id = selectedBundle.id;
+                                larmanController.modifyBundlePosition(id, new Point2D(selectedBundle.position.getX(), Double.parseDouble(bundleYPosValue.getText())))
+                                    .thenRun(() -> refreshSelectedBundle(id));
                             }
                         }
                         updateBundleInfo(selectedBundle);
@@ -520,10 +494,8 @@ public class MainController extends BaseController {
                 if (selectedBundle != null) {
                     if (!bundleAngleValue.getText().isEmpty() && !bundleAngleValue.getText().equals("-") && !bundleAngleValue.getText().equals(".") && !bundleAngleValue.getText().equals("-.")) {
                         if(!larmanController.getLiftBundles().contains(selectedBundle)) {
-                            selectedBundle.angle = Double.parseDouble(bundleAngleValue.getText());
-                            larmanController.modifyBundleProperties(selectedBundle);
-                            yardPresenter.draw();
-                            setFocusedBundleElevView(selectedBundle);
+                            BundleDto bundleDto = selectedBundle.withAngle(Double.parseDouble(bundleAngleValue.getText()));
+                            larmanController.modifyBundleProperties(bundleDto).thenRun(() -> refreshSelectedBundle(bundleDto.id));
                         }
                     }
                     updateBundleInfo(selectedBundle);
@@ -534,8 +506,7 @@ public class MainController extends BaseController {
 
     private void initInventorySearchBar() {
         inventorySearchBar.textProperty().addListener((observable, oldValue, newValue) -> {
-            FilteredList<BundleDto> filteredData = new FilteredList<>(FXCollections.observableArrayList(observableBundleList));
-            filteredData.setPredicate(bundleDto -> {
+            filteredInventoryBundles.setPredicate(bundleDto -> {
                 if (newValue == null || newValue.isEmpty()) {
                     return true;
                 }
@@ -550,10 +521,6 @@ public class MainController extends BaseController {
                 return bundleDto.getPlankSize().toLowerCase().contains(lowerCaseFilter);
 
             });
-            SortedList<BundleDto> sortedData = new SortedList<>(filteredData);
-            sortedData.comparatorProperty().bind(inventoryTable.comparatorProperty());
-            inventoryTable.setItems(sortedData);
-
         });
     }
 
@@ -561,11 +528,16 @@ public class MainController extends BaseController {
         codeColumn.setCellValueFactory(new PropertyValueFactory<BundleDto, String>("barcode"));
         typeColumn.setCellValueFactory(new PropertyValueFactory<BundleDto, String>("essence"));
         sizeColumn.setCellValueFactory(new PropertyValueFactory<BundleDto, String>("plankSize"));
+        inventoryBundles = FXCollections.observableArrayList();
+        filteredInventoryBundles = new FilteredList<>(inventoryBundles);
+        SortedList<BundleDto> sortedInventoryBundles = new SortedList<>(filteredInventoryBundles);
+        sortedInventoryBundles.comparatorProperty().bind(inventoryTable.comparatorProperty());
+        inventoryTable.setItems(sortedInventoryBundles);
         inventoryTable.setRowFactory(tv -> {
             TableRow<BundleDto> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
                 if (!row.isEmpty()) {
-                    BundleDto bundle = row.getItem();
+                    BundleDto bundle = larmanController.getBundle(row.getItem().id);
                     yardPresenter.setTopSelectedBundle(bundle);
                     clearElevationView();
                     elevationViewPresenter3D.setFocusedBundle(bundle);
@@ -616,6 +588,14 @@ public class MainController extends BaseController {
         liftScaleValue.setText(String.valueOf(liftDto.scale));
     }
 
+    private void refreshSelectedBundle(String id) {
+        BundleDto bundleDto = larmanController.getBundle(id);
+        if (bundleDto != null) {
+            setFocusedBundleElevView(bundleDto);
+            updateBundleInfo(bundleDto);
+        }
+    }
+
     public void updateBundleInfo(BundleDto bundle) {
         this.selectedBundle = bundle;
         bundleBarcodeValue.setText(bundle.barcode);
@@ -653,20 +633,42 @@ public class MainController extends BaseController {
     }
 
     public void clearTableView() {
-        inventoryTable.getItems().clear();
+        inventoryBundles.clear();
     }
 
     public void addTableViewBundles(List<BundleDto> bundles) {
         inventorySearchBar.clear();
-        if (!bundles.isEmpty()) {
-            observableBundleList = bundles;
-            ObservableList<BundleDto> data = FXCollections.observableArrayList(bundles);
-            inventoryTable.setItems(data);
-            if (yardPresenter.getTopSelectedBundle() != null) {
-                selectTableViewBundle(yardPresenter.getTopSelectedBundle());
+        inventoryBundles.setAll(bundles);
+        if (yardPresenter.getTopSelectedBundle() != null) {
+            selectTableViewBundle(yardPresenter.getTopSelectedBundle());
+        }
+    }
+
+    @Override
+    public void onYardChanged(YardChangeSet changeSet) {
+        if (changeSet.isYardReplaced()) {
+            addTableViewBundles(larmanController.getBundles());
+            return;
+        }
+        for (String id : changeSet.getBundleIds(YardChangeType.BUNDLE_ADDED, YardChangeType.BUNDLE_REMOVED, YardChangeType.BUNDLE_MODIFIED)) {
+            updateTableViewBundle(id);
+        }
+        if (yardPresenter.getTopSelectedBundle() != null) {
+            selectTableViewBundle(yardPresenter.getTopSelectedBundle());
+        }
+    }
+
+    private void updateTableViewBundle(String id) {
+        BundleDto bundleDto = larmanController.getBundle(id);
+        for (int i = 0; i < inventoryBundles.size(); i++) {
+            if (inventoryBundles.get(i).id.equals(id)) {
+                if (bundleDto == null) inventoryBundles.remove(i);
+                else inventoryBundles.set(i, bundleDto);
+                return;
             }
-        } else {
-            inventoryTable.getItems().clear();
+        }
+        if (bundleDto != null) {
+            inventoryBundles.add(bundleDto);
         }
     }
 
@@ -681,19 +683,19 @@ public class MainController extends BaseController {
     }
 
     public void handleMenuFileNew(ActionEvent actionEvent) {
-        FileHelper.newFile(stage, larmanController.getYard());
+        FileHelper.newFile(stage, larmanController);
     }
 
     public void handleMenuFileOpen(ActionEvent actionEvent) {
-        FileHelper.openFile(stage, larmanController.getYard());
+        FileHelper.openFile(stage, larmanController);
     }
 
     public void handleMenuFileSave(ActionEvent actionEvent) {
-        FileHelper.saveFile(stage, larmanController.getYard());
+        FileHelper.saveFile(stage, larmanController);
     }
 
     public void handleMenuSaveAs(ActionEvent actionEvent) {
-        FileHelper.saveFileAs(stage, larmanController.getYard());
+        FileHelper.saveFileAs(stage, larmanController);
     }
 
     public void handleMenuHelpAbout(ActionEvent actionEvent) {
@@ -702,28 +704,16 @@ public class MainController extends BaseController {
 
     public void handleExport3D() {
         if (!larmanController.getBundles().isEmpty()) {
-            FileHelper.saveSTLFile(stage, larmanController.getBundles());
+            FileHelper.saveSTLFile(stage, larmanController);
         }
     }
 
     public void handleUndoButton(ActionEvent actionEvent) {
-        try {
-            larmanController.setYard(UndoRedo.undo());
-            yardPresenter.updateSelectedBundles();
-            yardPresenter.draw();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        larmanController.undo().thenRun(yardPresenter::updateSelectedBundles);
     }
 
     public void handleRedoButton(ActionEvent actionEvent) {
-        try {
-            larmanController.setYard(UndoRedo.redo());
-            yardPresenter.updateSelectedBundles();
-            yardPresenter.draw();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        larmanController.redo().thenRun(yardPresenter::updateSelectedBundles);
     }
 
     public void handleGridSize(ActionEvent actionEvent) {
@@ -6,11 +6,11 @@ import javafx.event.ActionEvent;
 public class StartController extends BaseController {
 
     public void newFile(ActionEvent actionEvent) {
-        FileHelper.newFile(stage);
+        FileHelper.newFile(stage, larmanController);
     }
 
     public void openFile(ActionEvent actionEvent) {
-        FileHelper.openFile(stage);
+        FileHelper.openFile(stage, larmanController);
     }
 
 }
@@ -1,12 +1,11 @@
 package presentation.presenters;
 
 import domain.dtos.BundleDto;
-import helpers.CenteredRectangle;
-import helpers.ColorHelper;
 import helpers.ConfigHelper;
+import helpers.JavafxHelper;
 import javafx.scene.paint.Color;
 
-public class BundlePresenter extends CenteredRectangle implements IPresenter {
+public class BundlePresenter extends RectanglePresenter implements IPresenter {
 
     public BundleDto dto;
 
@@ -17,8 +16,8 @@ public class BundlePresenter extends CenteredRectangle implements IPresenter {
     }
 
     public void draw() {
-        Color color = Color.web(dto.color);
-        rectangle.setFill(ColorHelper.setOpacity(color, ConfigHelper.bundleOpacity));
+        Color color = JavafxHelper.rgbToColor(dto.color);
+        rectangle.setFill(JavafxHelper.setOpacity(color, ConfigHelper.bundleOpacity));
         rectangle.setStroke(color);
         rectangle.setStrokeWidth(ConfigHelper.bundleBorderWidth);
     }
@@ -2,6 +2,8 @@ package presentation.presenters;
 
 import domain.controllers.LarmanController;
 import domain.dtos.BundleDto;
+import domain.events.IYardListener;
+import domain.events.YardChangeSet;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.Point2D;
@@ -27,14 +29,11 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.transform.Rotate;
 import presentation.controllers.MainController;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
-import static helpers.ColorHelper.hex2Rgb;
+import static helpers.JavafxHelper.rgbToColor;
 
-public class ElevationViewPresenter3D implements IPresenter {
+public class ElevationViewPresenter3D implements IPresenter, IYardListener {
 
     private SubScene scene;
     private Camera camera;
@@ -51,7 +50,7 @@ public class ElevationViewPresenter3D implements IPresenter {
     private Point2D groupTranslate;
     private Point2D initGroupTranslate;
     private Map<Box, BundleDto> boxToBundleDtoMap;
-    private Map<BundleDto, Box> dtoToBoxMap;
+    private Map<String, Box> idToBoxMap;
     private BundleDto focusedBundle;
     private ToggleButton viewAllBundlesButton;
 
@@ -59,7 +58,7 @@ public class ElevationViewPresenter3D implements IPresenter {
         this.mainController = mainController;
         this.larmanController = mainController.larmanController;
         boxToBundleDtoMap = new HashMap<>();
-        dtoToBoxMap = new HashMap<>();
+        idToBoxMap = new HashMap<>();
         allBundles = new ArrayList<>();
         group = new Group();
         scene = new SubScene(group, 1, 1, true, SceneAntialiasing.BALANCED);
@@ -77,6 +76,7 @@ public class ElevationViewPresenter3D implements IPresenter {
         camera.setNearClip(1);
         camera.setFarClip(10000);
         initControl(group, scene);
+        larmanController.addYardListener(this);
     }
 
     private void initControl(Group group, SubScene scene) {
@@ -150,43 +150,101 @@ public class ElevationViewPresenter3D implements IPresenter {
     @Override
     public void draw() {
         for (BundleDto bundle : allBundles) {
-            Box box = new Box(bundle.width, bundle.height, bundle.length);
-            box.setRotationAxis(new Point3D(0.0, 1.0, 0.0));
-            box.setRotate(-bundle.angle);
-            box.setTranslateX(bundle.getX() - initGroupTranslate.getX());
-            box.setTranslateY(-(bundle.height) / 2 - bundle.getZ() + 1);
-            box.setTranslateZ(bundle.getY() - initGroupTranslate.getY());
-
-            PhongMaterial material = new PhongMaterial();
-            material.setDiffuseColor(hex2Rgb(bundle.color));
-            material.setDiffuseMap(new Image(getClass().getResourceAsStream("/presentation/assets/images/bois.jpg")));
-            box.setMaterial(material);
-
-            boxToBundleDtoMap.put(box, bundle);
-            dtoToBoxMap.put(bundle, box);
-
-            if (bundle.equals(focusedBundle)) {
-                PhongMaterial phongMaterial = (PhongMaterial) box.getMaterial();
-                Color color = phongMaterial.getDiffuseColor();
-                phongMaterial.setDiffuseColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 0.5));
+            addBox(bundle);
+        }
+    }
+
+    @Override
+    public void onYardChanged(YardChangeSet changeSet) {
+        if (allBundles.isEmpty() && !viewAllBundlesButton.isSelected()) return;
+        Set<String> changedIds;
+        if (changeSet.isYardReplaced()) {
+            // The boxes of the old yard go away, the bundles of the new one come in when all bundles are shown
+            changedIds = new HashSet<>(idToBoxMap.keySet());
+            if (viewAllBundlesButton.isSelected()) {
+                for (BundleDto bundle : larmanController.getBundles()) {
+                    changedIds.add(bundle.id);
+                }
             }
+        } else {
+            changedIds = changeSet.getBundleIds();
+        }
+        for (String id : changedIds) {
+            Box box = idToBoxMap.get(id);
+            BundleDto bundle = larmanController.getBundle(id);
+            if (box != null && bundle == null) {
+                removeBox(id, box);
+            } else if (box != null) {
+                replaceBundle(bundle);
+                boxToBundleDtoMap.put(box, bundle);
+                updateBox(box, bundle);
+            } else if (bundle != null && viewAllBundlesButton.isSelected()) {
+                allBundles.add(bundle);
+                addBox(bundle);
+            }
+        }
+    }
 
-            box.addEventHandler(MouseEvent.MOUSE_PRESSED, (event) -> {
-                if (event.getButton() == MouseButton.PRIMARY) {
-                    for (Map.Entry<Box, BundleDto> entry : boxToBundleDtoMap.entrySet()) {
-                        PhongMaterial phongMaterial = (PhongMaterial) entry.getKey().getMaterial();
-                        Color color = phongMaterial.getDiffuseColor();
-                        phongMaterial.setDiffuseColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 1.0));
-                    }
-                    mainController.updateBundleInfo(boxToBundleDtoMap.get(box));
-                    PhongMaterial phongMaterial = (PhongMaterial) box.getMaterial();
+    private void replaceBundle(BundleDto bundle) {
+        for (int i = 0; i < allBundles.size(); i++) {
+            if (allBundles.get(i).equals(bundle)) {
+                allBundles.set(i, bundle);
+                return;
+            }
+        }
+    }
+
+    private void removeBox(String id, Box box) {
+        allBundles.removeIf(bundle -> bundle.id.equals(id));
+        boxToBundleDtoMap.remove(box);
+        idToBoxMap.remove(id);
+        group.getChildren().remove(box);
+    }
+
+    private void updateBox(Box box, BundleDto bundle) {
+        box.setWidth(bundle.width);
+        box.setHeight(bundle.height);
+        box.setDepth(bundle.length);
+        box.setRotate(-bundle.angle);
+        box.setTranslateX(bundle.getX() - initGroupTranslate.getX());
+        box.setTranslateY(-(bundle.height) / 2 - bundle.getZ() + 1);
+        box.setTranslateZ(bundle.getY() - initGroupTranslate.getY());
+    }
+
+    private void addBox(BundleDto bundle) {
+        Box box = new Box(bundle.width, bundle.height, bundle.length);
+        box.setRotationAxis(new Point3D(0.0, 1.0, 0.0));
+        updateBox(box, bundle);
+
+        PhongMaterial material = new PhongMaterial();
+        material.setDiffuseColor(rgbToColor(bundle.color));
+        material.setDiffuseMap(new Image(getClass().getResourceAsStream("/presentation/assets/images/bois.jpg")));
+        box.setMaterial(material);
+
+        boxToBundleDtoMap.put(box, bundle);
+        idToBoxMap.put(bundle.id, box);
+
+        if (bundle.equals(focusedBundle)) {
+            PhongMaterial phongMaterial = (PhongMaterial) box.getMaterial();
+            Color color = phongMaterial.getDiffuseColor();
+            phongMaterial.setDiffuseColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 0.5));
+        }
+
+        box.addEventHandler(MouseEvent.MOUSE_PRESSED, (event) -> {
+            if (event.getButton() == MouseButton.PRIMARY) {
+                for (Map.Entry<Box, BundleDto> entry : boxToBundleDtoMap.entrySet()) {
+                    PhongMaterial phongMaterial = (PhongMaterial) entry.getKey().getMaterial();
                     Color color = phongMaterial.getDiffuseColor();
-                    phongMaterial.setDiffuseColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 0.5));
-                    mainController.getYardPresenter().setTopSelectedBundle(boxToBundleDtoMap.get(box));
+                    phongMaterial.setDiffuseColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 1.0));
                 }
-            });
-            group.getChildren().add(box);
-        }
+                mainController.updateBundleInfo(boxToBundleDtoMap.get(box));
+                PhongMaterial phongMaterial = (PhongMaterial) box.getMaterial();
+                Color color = phongMaterial.getDiffuseColor();
+                phongMaterial.setDiffuseColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), 0.5));
+                mainController.getYardPresenter().setTopSelectedBundle(boxToBundleDtoMap.get(box));
+            }
+        });
+        group.getChildren().add(box);
     }
 
     public void setFocusedBundle(BundleDto bundle) {
@@ -208,7 +266,7 @@ public class ElevationViewPresenter3D implements IPresenter {
             allBundles.clear();
             group.getChildren().clear();
             boxToBundleDtoMap.clear();
-            dtoToBoxMap.clear();
+            idToBoxMap.clear();
         }
         if (fromMain && viewAllBundlesButton.isSelected()) {
             deselect();
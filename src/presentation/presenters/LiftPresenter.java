@@ -1,22 +1,21 @@
 package presentation.presenters;
 
 import domain.dtos.LiftDto;
-import helpers.CenteredRectangle;;
 import javafx.scene.image.Image;
 import javafx.scene.paint.ImagePattern;
 
-public class LiftPresenter extends CenteredRectangle implements IPresenter {
+public class LiftPresenter extends RectanglePresenter implements IPresenter {
     public LiftDto dto;
-    private CenteredRectangle arms;
+    private RectanglePresenter arms;
 
     public LiftPresenter(LiftDto dto) {
         super(dto.position, dto.width, dto.length, -dto.angle);
         this.dto = dto;
-        this.arms = new CenteredRectangle(dto.armsPosition, dto.armsWidth, dto.armsLength, -dto.angle);
+        this.arms = new RectanglePresenter(dto.armsPosition, dto.armsWidth, dto.armsLength, -dto.angle);
         draw();
     }
 
-    public CenteredRectangle getArms() {
+    public RectanglePresenter getArms() {
         return arms;
     }
 
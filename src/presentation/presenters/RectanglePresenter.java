@@ -0,0 +1,32 @@
+package presentation.presenters;
+
+import helpers.CenteredRectangle;
+import helpers.Point2D;
+import javafx.scene.shape.Rectangle;
+
+public class RectanglePresenter extends CenteredRectangle {
+    protected final Rectangle rectangle = new Rectangle();
+    private double scale;
+
+    public RectanglePresenter(Point2D centerPos, double width, double height, double angle) {
+        super(centerPos, width, height, angle);
+    }
+
+    public RectanglePresenter(double centerX, double centerY, double width, double height, double angle) {
+        super(centerX, centerY, width, height, angle);
+    }
+
+    public void setScale(double scale) {
+        this.scale = scale;
+    }
+
+    // The scene-graph node only follows the geometry when it is handed to the view
+    public Rectangle getRectangle() {
+        rectangle.setWidth(getWidth() * scale);
+        rectangle.setHeight(getHeight() * scale);
+        rectangle.setX(getX() - getWidth() * scale / 2.0);
+        rectangle.setY(getY() - getHeight() * scale / 2.0);
+        rectangle.setRotate(getRotate());
+        return rectangle;
+    }
+}
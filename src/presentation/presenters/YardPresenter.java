@@ -3,9 +3,15 @@ package presentation.presenters;
 import domain.controllers.LarmanController;
 import domain.dtos.BundleDto;
 import domain.dtos.LiftDto;
+import domain.events.IYardListener;
+import domain.events.YardChangeSet;
+import domain.profiling.RenderPassEvent;
 import enums.EditorMode;
+import enums.YardChangeType;
 import helpers.*;
 import javafx.geometry.Pos;
+import javafx.scene.Group;
+import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.input.*;
@@ -14,9 +20,13 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Line;
 import presentation.controllers.MainController;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-public class YardPresenter extends Pane implements IPresenter, Cloneable {
+public class YardPresenter extends Pane implements IPresenter, IYardListener, Cloneable {
     private double zoom;
     private Point2D lastClickedPoint;
     private Point2D dragVector;
@@ -35,6 +45,10 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
     private MainController mainController;
     private LarmanController larmanController;
     private boolean shouldUpdate;
+    private Map<String, BundlePresenter> bundlePresenters;
+    // Bundle rectangles stay in Z order in their layer, so that a change set only touches the bundles it names
+    private final Group liftLayer = new Group();
+    private final Group bundleLayer = new Group();
 
     public YardPresenter(MainController mainController) {
         super();
@@ -46,6 +60,7 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
         canDrag = true;
         canDrag = false;
         shouldUpdate = false;
+        bundlePresenters = new HashMap<>();
         dragVector = new Point2D(0, 0);
         translateVector = new Point2D(0, 0);
         selectionOffsetVector = new Point2D(0, 0);
@@ -59,9 +74,36 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
         dropShadow.setColor(Color.GREY);
 
         initEventListeners();
+        larmanController.addYardListener(this);
+        updateHistoryButtons();
         draw();
     }
 
+    @Override
+    public void onYardChanged(YardChangeSet changeSet) {
+        if (changeSet.contains(YardChangeType.LIFT_MOVED)) {
+            updateLiftInfo();
+        }
+        if (changeSet.contains(YardChangeType.HISTORY_CHANGED)) {
+            updateHistoryButtons();
+        }
+        if (changeSet.isYardReplaced()) {
+            bundlePresenters.clear();
+            draw();
+            return;
+        }
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
+        if (changeSet.contains(YardChangeType.LIFT_MOVED, YardChangeType.LIFT_LOAD_CHANGED)) {
+            drawLifts();
+        }
+        Set<String> bundleIds = changeSet.getBundleIds();
+        event.view = "plan";
+        event.bundleCount = bundleIds.size();
+        event.createdPresenters = redrawBundles(bundleIds);
+        event.commit();
+    }
+
     private void initEventListeners() {
         widthProperty().addListener(observable -> draw());
         heightProperty().addListener(observable -> draw());
@@ -115,14 +157,13 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
                     if (!larmanController.getLiftBundles().contains(topSelectedBundle)) {
                         if (!shouldUpdate) {
                             shouldUpdate = true;
-                            UndoRedo.addCurrentYard();
+                            larmanController.saveYardState();
                         }
                         Point2D newBundlePosition = mainController.gridIsOn
                             ? positionInGrid(mousePositionInRealCoords)
                             : mousePositionInRealCoords.substract(selectionOffsetVector);
 
                         larmanController.modifyBundlePosition(topSelectedBundle.id, newBundlePosition);
-                        draw();
                     }
                 }
             }
@@ -140,7 +181,6 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
                 shouldUpdate = false;
             }
             canDrag = false;
-            draw();
         }
     }
 
@@ -155,58 +195,51 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
             handleZoom(delta, getPlanCenterCoords());
         }
         if (event.getCode().equals(KeyCode.RIGHT)) {
-            larmanController.turnLiftRight();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.turnLiftRight().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.LEFT)) {
-            larmanController.turnLiftLeft();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.turnLiftLeft().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.UP)) {
-            larmanController.moveLiftForward();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.moveLiftForward().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.DOWN)) {
-            larmanController.moveLiftBackward();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.moveLiftBackward().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.W) && event.isControlDown()) {
-            larmanController.riseArms();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.riseArms().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.S) && event.isControlDown()) {
-            larmanController.lowerArms();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.lowerArms().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals((KeyCode.UP)) && event.isControlDown()) {
-            larmanController.moveLiftToBundle();
-            updateLiftInfo();
-            selectBundleLift();
+            larmanController.moveLiftToBundle().thenRun(this::selectBundleLift);
+            event.consume();
+        }
+        if (event.getCode().equals(KeyCode.L) && event.isControlDown()) {
+            larmanController.addLift(transformPlanCoordsToRealCoords(getPlanCenterCoords()));
+            event.consume();
+        } else if (event.getCode().equals(KeyCode.L)) {
+            int liftCount = larmanController.getLifts().size();
+            larmanController.selectLift((larmanController.getActiveLiftIndex() + 1) % liftCount);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.SPACE)) {
-            larmanController.setLiftBundles();
-            selectBundleLift();
+            larmanController.setLiftBundles().thenRun(this::selectBundleLift);
             event.consume();
         }
         if (event.getCode().equals(KeyCode.ENTER)) {
-            larmanController.clearLiftBundles();
-            mainController.clearAllBundleInfo();
-            topSelectedBundle = null;
-            mainController.clearElevationView();
-            draw();
+            larmanController.clearLiftBundles().thenRun(() -> {
+                mainController.clearAllBundleInfo();
+                selectTopBundle(null);
+                mainController.clearElevationView();
+            });
             event.consume();
         }
     }
@@ -220,9 +253,6 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
                 mainController.setFocusedBundleElevView(topSelectedBundle);
             }
         }
-        else {
-            draw();
-        }
     }
 
     private void updateMousePosition(MouseEvent event) {
@@ -279,12 +309,12 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
     public void updateSelectedBundles() {
         List<BundleDto> selectedBundles = larmanController.getSelectedBundles(mousePositionInRealCoords);
         if (!selectedBundles.isEmpty()) {
-            topSelectedBundle = larmanController.getTopBundle(mousePositionInRealCoords);
+            selectTopBundle(larmanController.getTopBundle(mousePositionInRealCoords));
             mainController.updateBundleInfo(topSelectedBundle);
             mainController.setFocusedBundleElevView(topSelectedBundle);
             selectionOffsetVector = mousePositionInRealCoords.substract(topSelectedBundle.position);
         } else {
-            topSelectedBundle = null;
+            selectTopBundle(null);
             mainController.clearElevationView();
             mainController.clearAllBundleInfo();
             selectionOffsetVector = new Point2D(0, 0);
@@ -292,14 +322,10 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
     }
 
     private void createBundle() {
-        if (mainController.gridIsOn) {
-            BundleDto createdBundle = larmanController.createBundle(positionInGrid(mousePositionInRealCoords));
-            selectBundle(createdBundle);
-        } else {
-            BundleDto createdBundle = larmanController.createBundle(mousePositionInRealCoords);
-            selectBundle(createdBundle);
-        }
-        draw();
+        Point2D position = mainController.gridIsOn
+            ? positionInGrid(mousePositionInRealCoords)
+            : mousePositionInRealCoords;
+        larmanController.createBundle(position).thenAccept(this::selectBundle);
     }
 
     private Point2D positionInGrid(Point2D point) {
@@ -331,45 +357,37 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
     }
 
     private void deleteBundle(String id) {
-        larmanController.deleteBundle(id);
-        mainController.editorMode.setValue(EditorMode.POINTER);
-        mainController.clearAllBundleInfo();
-        mainController.addTableViewBundles(larmanController.getBundles());
-        mainController.clearElevationView();
-        draw();
-    }
-
-    private void checkUndoSize() {
-        if (UndoRedo.getUndoSize() == 0) {
-            mainController.undoButton.setDisable(true);
-        } else {
-            mainController.undoButton.setDisable(false);
-        }
+        larmanController.deleteBundle(id).thenRun(() -> {
+            mainController.editorMode.setValue(EditorMode.POINTER);
+            mainController.clearAllBundleInfo();
+            mainController.clearElevationView();
+        });
     }
 
-    private void checkRedoSize() {
-        if (UndoRedo.getRedoSize() == 0) {
-            mainController.redoButton.setDisable(true);
-        } else {
-            mainController.redoButton.setDisable(false);
-        }
+    // Reads the availability published by the domain thread, the FX thread never waits on it
+    private void updateHistoryButtons() {
+        mainController.undoButton.setDisable(!larmanController.canUndo());
+        mainController.redoButton.setDisable(!larmanController.canRedo());
     }
 
     public void draw() {
+        RenderPassEvent event = new RenderPassEvent();
+        event.begin();
         getChildren().clear();
         drawAxes();
-        checkUndoSize();
-        checkRedoSize();
         if (mainController.gridIsOn) {
             drawGrid();
         }
-        drawLift(larmanController.getLift());
-        drawBundles(larmanController.getBundlesSortedZ());
-        mainController.clearTableView();
-        if (!larmanController.getBundles().isEmpty()) {
-            mainController.addTableViewBundles(larmanController.getBundles());
-        }
+        drawLifts();
+        getChildren().add(liftLayer);
+        List<BundleDto> bundles = larmanController.getBundlesSortedZ();
+        int createdPresenters = drawBundles(bundles);
+        getChildren().add(bundleLayer);
         drawOtherGraphics();
+        event.view = "plan";
+        event.bundleCount = bundles.size();
+        event.createdPresenters = createdPresenters;
+        event.commit();
     }
 
     private void drawAxes() {
@@ -387,27 +405,86 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
         yAxis.setStartX(realOriginOnPlan.getX());
         yAxis.setEndX(realOriginOnPlan.getX());
 
-        xAxis.setStroke(ColorHelper.setOpacity(Color.WHITE, 0.2));
+        xAxis.setStroke(JavafxHelper.setOpacity(Color.WHITE, 0.2));
         xAxis.getStrokeDashArray().add(10.0);
-        yAxis.setStroke(ColorHelper.setOpacity(Color.WHITE, 0.2));
+        yAxis.setStroke(JavafxHelper.setOpacity(Color.WHITE, 0.2));
         yAxis.getStrokeDashArray().add(10.0);
 
         getChildren().add(xAxis);
         getChildren().add(yAxis);
     }
 
-    private void drawBundles(List<BundleDto> bundles) {
+    private int drawBundles(List<BundleDto> bundles) {
+        int createdPresenters = 0;
+        List<Node> rectangles = new ArrayList<>(bundles.size());
         for (BundleDto bundleDto : bundles) {
-            BundlePresenter bundlePresenter = new BundlePresenter(bundleDto);
-            Point2D planPosition = transformRealCoordsToPlanCoords(bundleDto.position);
-            bundlePresenter.setScale(zoom);
-            bundlePresenter.setPosition(planPosition);
-            if (topSelectedBundle != null) {
-                if (bundleDto.equals(topSelectedBundle)) {
-                    bundlePresenter.getRectangle().setEffect(dropShadow);
+            BundlePresenter bundlePresenter = bundlePresenters.get(bundleDto.id);
+            if (bundlePresenter == null) {
+                bundlePresenter = new BundlePresenter(bundleDto);
+                bundlePresenters.put(bundleDto.id, bundlePresenter);
+                createdPresenters++;
+            }
+            rectangles.add(placeBundle(bundlePresenter));
+        }
+        bundleLayer.getChildren().setAll(rectangles);
+        return createdPresenters;
+    }
+
+    // Each changed bundle is taken out of the layer and, unless it was deleted, put back with a new presenter where its Z puts it
+    private int redrawBundles(Set<String> bundleIds) {
+        int createdPresenters = 0;
+        List<Node> rectangles = bundleLayer.getChildren();
+        for (String id : bundleIds) {
+            BundlePresenter oldPresenter = bundlePresenters.remove(id);
+            if (oldPresenter != null) {
+                int index = findBundleIndex(oldPresenter.dto);
+                if (index < rectangles.size() && rectangles.get(index) == oldPresenter.getRectangle()) {
+                    rectangles.remove(index);
+                } else {
+                    rectangles.remove(oldPresenter.getRectangle());
                 }
             }
-            getChildren().add(bundlePresenter.getRectangle());
+            BundleDto bundleDto = larmanController.getBundle(id);
+            if (bundleDto == null) continue;
+            BundlePresenter bundlePresenter = new BundlePresenter(bundleDto);
+            bundlePresenters.put(id, bundlePresenter);
+            rectangles.add(findBundleIndex(bundleDto), placeBundle(bundlePresenter));
+            createdPresenters++;
+        }
+        return createdPresenters;
+    }
+
+    // First rectangle of the layer that is not below the bundle, in the order of getBundlesSortedZ
+    private int findBundleIndex(BundleDto bundleDto) {
+        List<Node> rectangles = bundleLayer.getChildren();
+        int low = 0;
+        int high = rectangles.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            BundleDto other = ((BundlePresenter) rectangles.get(middle).getUserData()).dto;
+            int comparison = other.z != bundleDto.z ? Double.compare(other.z, bundleDto.z) : other.id.compareTo(bundleDto.id);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Node placeBundle(BundlePresenter bundlePresenter) {
+        Point2D planPosition = transformRealCoordsToPlanCoords(bundlePresenter.dto.position);
+        bundlePresenter.setScale(zoom);
+        bundlePresenter.setPosition(planPosition);
+        bundlePresenter.getRectangle().setEffect(bundlePresenter.dto.equals(topSelectedBundle) ? dropShadow : null);
+        bundlePresenter.getRectangle().setUserData(bundlePresenter);
+        return bundlePresenter.getRectangle();
+    }
+
+    private void drawLifts() {
+        liftLayer.getChildren().clear();
+        for (LiftDto liftDto : larmanController.getLifts()) {
+            drawLift(liftDto);
         }
     }
 
@@ -416,12 +493,12 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
         Point2D liftPlanPosition = transformRealCoordsToPlanCoords(liftDto.position);
         liftPresenter.setPosition(liftPlanPosition);
         liftPresenter.setScale(zoom);
-        getChildren().add(liftPresenter.getRectangle());
+        liftLayer.getChildren().add(liftPresenter.getRectangle());
 
         Point2D armsPlanPosition = transformRealCoordsToPlanCoords(liftDto.armsPosition);
         liftPresenter.getArms().setPosition(armsPlanPosition);
         liftPresenter.getArms().setScale(zoom);
-        getChildren().add(liftPresenter.getArms().getRectangle());
+        liftLayer.getChildren().add(liftPresenter.getArms().getRectangle());
     }
 
     private void drawOtherGraphics() {
@@ -445,7 +522,7 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
             line.setEndX(pointX.getX());
             line.setEndY(screenHeight);
 
-            line.setStroke(ColorHelper.setOpacity(Color.WHITE, 0.2));
+            line.setStroke(JavafxHelper.setOpacity(Color.WHITE, 0.2));
             line.getStrokeDashArray().add(3.0);
             getChildren().add(line);
         }
@@ -458,7 +535,7 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
             line.setEndY(pointY.getY());
             line.setEndX(screenWidth);
 
-            line.setStroke(ColorHelper.setOpacity(Color.WHITE, 0.2));
+            line.setStroke(JavafxHelper.setOpacity(Color.WHITE, 0.2));
             line.getStrokeDashArray().add(3.0);
             getChildren().add(line);
         }
@@ -473,8 +550,16 @@ public class YardPresenter extends Pane implements IPresenter, Cloneable {
     }
 
     public void setTopSelectedBundle(BundleDto bundle) {
+        selectTopBundle(bundle);
+    }
+
+    // Moves the shadow from the rectangle of the previous selection to the new one
+    private void selectTopBundle(BundleDto bundle) {
+        BundlePresenter previous = topSelectedBundle == null ? null : bundlePresenters.get(topSelectedBundle.id);
+        if (previous != null) previous.getRectangle().setEffect(null);
         topSelectedBundle = bundle;
-        draw();
+        BundlePresenter selected = bundle == null ? null : bundlePresenters.get(bundle.id);
+        if (selected != null) selected.getRectangle().setEffect(dropShadow);
     }
 
     public BundleDto getTopSelectedBundle() {